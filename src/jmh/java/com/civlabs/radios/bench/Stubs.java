@@ -0,0 +1,70 @@
+package com.civlabs.radios.bench;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+import org.bukkit.World;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+/**
+ * Lightweight stand-ins for Bukkit and Simple Voice Chat interfaces so the
+ * benchmarks run without a server. Every method not listed returns null, zero or false.
+ */
+public final class Stubs {
+
+    private Stubs() {}
+
+    /** Proxy of type answering the listed methods by name. */
+    @SuppressWarnings("unchecked")
+    public static <T> T of(Class<T> type, Map<String, Function<Object[], Object>> answers) {
+        return (T) Proxy.newProxyInstance(Stubs.class.getClassLoader(), new Class<?>[]{type}, (proxy, m, args) -> {
+            switch (m.getName()) {
+                case "hashCode": if (m.getParameterCount() == 0) return System.identityHashCode(proxy); break;
+                case "equals": if (m.getParameterCount() == 1) return proxy == args[0]; break;
+                case "toString": if (m.getParameterCount() == 0) return type.getSimpleName() + "Stub"; break;
+            }
+            Function<Object[], Object> a = answers.get(m.getName());
+            if (a != null) return a.apply(args);
+            Class<?> rt = m.getReturnType();
+            if (rt == boolean.class) return false;
+            if (rt == int.class || rt == short.class || rt == byte.class || rt == char.class) return 0;
+            if (rt == long.class) return 0L;
+            if (rt == float.class) return 0f;
+            if (rt == double.class) return 0d;
+            return null;
+        });
+    }
+
+    public static World world(String name) {
+        UUID uid = UUID.nameUUIDFromBytes(name.getBytes());
+        return of(World.class, Map.of("getName", a -> name, "getUID", a -> uid,
+                "getEnvironment", a -> World.Environment.NORMAL));
+    }
+
+    /** Installs a Server that knows the given worlds. Bukkit.setServer needs a real build, so the field is set directly. */
+    public static void installServer(World... worlds) {
+        if (Bukkit.getServer() != null) return;
+        Logger log = Logger.getLogger("bench");
+        Server server = of(Server.class, Map.of(
+                "getLogger", a -> log,
+                "getWorld", a -> {
+                    for (World w : worlds) {
+                        if (a[0] instanceof String s && s.equals(w.getName())) return w;
+                        if (a[0] instanceof UUID u && u.equals(w.getUID())) return w;
+                    }
+                    return null;
+                }));
+        try {
+            Field f = Bukkit.class.getDeclaredField("server");
+            f.setAccessible(true);
+            f.set(null, server);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not install stub server", e);
+        }
+    }
+}
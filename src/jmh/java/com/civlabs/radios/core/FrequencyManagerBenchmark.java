@@ -0,0 +1,56 @@
+package com.civlabs.radios.core;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FrequencyManager under contention: a few threads claim and release their own
+ * frequency while the rest poll isInUse, as the GUIs and guard task do.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FrequencyManagerBenchmark {
+
+    private static final int FREQS = 1024;
+
+    private FrequencyManager freq;
+
+    @State(Scope.Thread)
+    public static class Holder {
+        UUID id;
+        int f;
+
+        @Setup
+        public void setup(ThreadParams t) {
+            id = UUID.randomUUID();
+            f = 1 + t.getThreadIndex() % FREQS;
+        }
+    }
+
+    @Setup
+    public void setup() {
+        freq = new FrequencyManager(FREQS);
+        for (int f = 1; f <= FREQS; f += 2) freq.claim(f, UUID.randomUUID());
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(2)
+    public boolean claimRelease(Holder r) {
+        boolean ok = freq.claim(r.f, r.id);
+        freq.release(r.f, r.id);
+        return ok;
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(6)
+    public boolean isInUse(Holder r) {
+        return freq.isInUse(1 + ThreadLocalRandom.current().nextInt(FREQS), r.id);
+    }
+}
@@ -0,0 +1,110 @@
+package com.civlabs.radios.store;
+
+import com.civlabs.radios.model.Radio;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * RadioStore with `radios` radios on disk, per storage engine: save of one radio
+ * (marks it dirty), save plus the writer's flush, and a full load.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RadioStoreBenchmark {
+
+    @Param({"100", "1000", "10000", "50000"})
+    public int radios;
+
+    @Param({"yaml", "journal"})
+    public String engine;
+
+    private static final Logger LOG = Logger.getLogger("bench");
+
+    // long enough that the background writer never runs during a measurement
+    private static final long NO_AUTO_FLUSH = 3_600_000L;
+
+    private Path dir;
+    private Path loadDir; // separate files so load() never races the store being saved to
+    private RadioStore store;
+    private Radio edited;
+
+    @Setup
+    public void setup() throws IOException {
+        dir = Files.createTempDirectory("radios");
+        writeFixture(dir.resolve("radios.yml"), radios);
+        store = RadioStore.open(dir, engine, NO_AUTO_FLUSH, "", LOG); // the journal imports radios.yml here
+
+        loadDir = Files.createTempDirectory("radios");
+        writeFixture(loadDir.resolve("radios.yml"), radios);
+        RadioStore.open(loadDir, engine, NO_AUTO_FLUSH, "", LOG).close();
+        edited = store.getAll().iterator().next();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        store.close();
+        deleteDir(dir);
+        deleteDir(loadDir);
+    }
+
+    @Benchmark
+    public void save() {
+        edited.setFuelSeconds(edited.getFuelSeconds() + 1); // one changed field, like a fuel top-up
+        store.save(edited);
+    }
+
+    @Benchmark
+    public void saveAndFlush() throws IOException {
+        edited.setFuelSeconds(edited.getFuelSeconds() + 1);
+        store.save(edited);
+        store.flush();
+    }
+
+    @Benchmark
+    public RadioStore load() throws IOException {
+        RadioStore s = RadioStore.open(loadDir, engine, NO_AUTO_FLUSH, "", LOG);
+        s.close();
+        return s;
+    }
+
+    private static void deleteDir(Path d) throws IOException {
+        try (Stream<Path> files = Files.list(d)) {
+            for (Path p : (Iterable<Path>) files::iterator) Files.deleteIfExists(p);
+        }
+        Files.deleteIfExists(d);
+    }
+
+    // written directly instead of through save() so setup stays linear in size
+    private static void writeFixture(Path file, int n) throws IOException {
+        Random rnd = new Random(3);
+        YamlConfiguration cfg = new YamlConfiguration();
+        for (int i = 0; i < n; i++) {
+            String k = UUID.randomUUID().toString();
+            cfg.set(k + ".world", "world");
+            cfg.set(k + ".x", rnd.nextInt(20000) - 10000);
+            cfg.set(k + ".y", 64);
+            cfg.set(k + ".z", rnd.nextInt(20000) - 10000);
+            cfg.set(k + ".dimension", "NORMAL");
+            cfg.set(k + ".owner", UUID.randomUUID().toString());
+            cfg.set(k + ".enabled", false);
+            cfg.set(k + ".tx", 0);
+            cfg.set(k + ".rx", 1 + rnd.nextInt(128));
+            cfg.set(k + ".fuel", rnd.nextInt(3600));
+            cfg.set(k + ".antenna", 5);
+            cfg.set(k + ".maxRange", 3000);
+            cfg.set(k + ".rangeStep", 5);
+            cfg.set(k + ".fuelTotal", 0);
+        }
+        cfg.save(file.toFile());
+    }
+}
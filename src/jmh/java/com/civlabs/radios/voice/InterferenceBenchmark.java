@@ -0,0 +1,42 @@
+package com.civlabs.radios.voice;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/** Static generation for one 20 ms frame at 48 kHz, in place and into the stream's buffer. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class InterferenceBenchmark {
+
+    private static final int FRAME = 960;
+
+    @Param({"scalar", "select"})
+    public String mixer;
+
+    private Interference noise;
+    private short[] pcm;
+
+    @Setup
+    public void setup() {
+        PcmMixer m = mixer.equals("scalar") ? PcmMixer.scalar() : PcmMixer.select(true, Logger.getLogger("bench"));
+        noise = new Interference(48000, m);
+        Random rnd = new Random(42);
+        pcm = new short[FRAME];
+        for (int i = 0; i < FRAME; i++) pcm[i] = (short) (rnd.nextGaussian() * 8000);
+    }
+
+    @Benchmark
+    public short[] mixStatic() {
+        noise.mixStatic(pcm, 0.05);
+        return pcm;
+    }
+
+    @Benchmark
+    public short[] mixInto() {
+        return noise.mixInto(pcm, 0.05);
+    }
+}
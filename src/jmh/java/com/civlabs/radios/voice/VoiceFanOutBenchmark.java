@@ -0,0 +1,132 @@
+package com.civlabs.radios.voice;
+
+import com.civlabs.radios.bench.Stubs;
+import com.civlabs.radios.core.ProximityIndex;
+import com.civlabs.radios.core.RadioMode;
+import com.civlabs.radios.core.RadiosConfig;
+import com.civlabs.radios.model.Radio;
+import com.civlabs.radios.store.RadioRecord;
+import com.civlabs.radios.store.RadioTopology;
+import de.maxhenkel.voicechat.api.Position;
+import de.maxhenkel.voicechat.api.ServerLevel;
+import de.maxhenkel.voicechat.api.ServerPlayer;
+import de.maxhenkel.voicechat.api.VoicechatConnection;
+import de.maxhenkel.voicechat.api.VoicechatServerApi;
+import de.maxhenkel.voicechat.api.audiochannel.LocationalAudioChannel;
+import de.maxhenkel.voicechat.api.events.MicrophonePacketEvent;
+import de.maxhenkel.voicechat.api.events.VoicechatServerStartedEvent;
+import de.maxhenkel.voicechat.api.opus.OpusDecoder;
+import de.maxhenkel.voicechat.api.opus.OpusEncoder;
+import de.maxhenkel.voicechat.api.packets.MicrophonePacket;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * One mic packet through VoiceBridge.onMicPacket against a synthetic server:
+ * `radios` radios in one world, `listeners` of them tuned to the talker's frequency
+ * and within range, each with a player nearby. Opus and channels are stubs, so
+ * this measures routing, culling, static mixing and scheduling, not libopus.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class VoiceFanOutBenchmark {
+
+    private static final String WORLD = "world";
+    private static final int FREQS = 128;
+
+    @Param({"100", "1000", "10000", "50000"})
+    public int radios;
+
+    @Param({"1", "10", "100", "500"})
+    public int listeners;
+
+    private VoiceBridge bridge;
+    private MicrophonePacketEvent packet;
+
+    @Setup
+    public void setup() {
+        World world = Stubs.world(WORLD);
+        Stubs.installServer(world);
+        Random rnd = new Random(7);
+        UUID talker = UUID.randomUUID();
+
+        List<Radio> all = new ArrayList<>(radios);
+        Radio tx = radio(world, 0, 64, 0);
+        tx.setEnabled(true);
+        tx.setOperator(talker);
+        tx.setTransmitFrequency(1);
+        all.add(tx);
+
+        ProximityIndex proximity = new ProximityIndex();
+        int onFreq = Math.min(listeners, radios - 1);
+        for (int i = 0; i < radios - 1; i++) {
+            // listeners spread over the whole delay/noise curve, the rest anywhere on other channels
+            double d = i < onFreq ? 50 + rnd.nextDouble() * 5500 : rnd.nextDouble() * 20000;
+            double a = rnd.nextDouble() * Math.PI * 2;
+            Radio r = radio(world, (int) (Math.cos(a) * d), 64, (int) (Math.sin(a) * d));
+            r.setListenFrequency(i < onFreq ? 1 : 2 + rnd.nextInt(FREQS - 1));
+            if (i < onFreq) proximity.update(UUID.randomUUID(), new Location(world, r.getX() + 3, 64, r.getZ()));
+            all.add(r);
+        }
+        RadioTopology topology = RadioTopology.build(all.stream().map(RadioRecord::of).toList(), 1);
+
+        RadiosConfig cfg = new RadiosConfig(RadioMode.SLIDER, FREQS, 9, 30, false, true, false, false,
+                true, 48000, -24.0, 6000.0, 30_000L, 120_000L, true, false, "yaml", 5_000L, "", Map.of(), Map.of());
+        bridge = new VoiceBridge(() -> topology, topology::version, () -> cfg, proximity, Logger.getLogger("bench"));
+        bridge.worldLoaded(world);
+        bridge.onServerStarted(Stubs.of(VoicechatServerStartedEvent.class, Map.of("getVoicechat", x -> api())));
+
+        byte[] opus = new byte[60];
+        rnd.nextBytes(opus);
+        ServerPlayer player = Stubs.of(ServerPlayer.class, Map.of("getUuid", x -> talker));
+        VoicechatConnection conn = Stubs.of(VoicechatConnection.class, Map.of("getPlayer", x -> player));
+        MicrophonePacket mic = Stubs.of(MicrophonePacket.class, Map.of("getOpusEncodedData", x -> opus));
+        packet = Stubs.of(MicrophonePacketEvent.class, Map.of("getSenderConnection", x -> conn, "getPacket", x -> mic));
+    }
+
+    // packets arrive far faster than the real 20 ms cadence, so drop delayed frames between iterations
+    @TearDown(Level.Iteration)
+    public void dropQueued() {
+        bridge.shutdownAllSpeakers();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        bridge.shutdown();
+    }
+
+    @Benchmark
+    public void onMicPacket() {
+        bridge.onMicPacket(packet);
+    }
+
+    private static Radio radio(World world, int x, int y, int z) {
+        Radio r = new Radio(UUID.randomUUID(), new Location(world, x, y, z), null);
+        r.setAntennaCount(5);
+        r.setMaxRangeBlocks(6000);
+        r.setRangeStep(5);
+        return r;
+    }
+
+    private static VoicechatServerApi api() {
+        short[] pcm = new short[960];
+        byte[] encoded = new byte[60];
+        ServerLevel level = Stubs.of(ServerLevel.class, Map.of());
+        return Stubs.of(VoicechatServerApi.class, Map.of(
+                "createDecoder", x -> Stubs.of(OpusDecoder.class, Map.of("decode", a -> pcm)),
+                "createEncoder", x -> Stubs.of(OpusEncoder.class, Map.of("encode", a -> encoded)),
+                "createPosition", x -> Stubs.of(Position.class, Map.of()),
+                "fromServerLevel", x -> level,
+                "createLocationalAudioChannel", x -> Stubs.of(LocationalAudioChannel.class, Map.of())));
+    }
+}
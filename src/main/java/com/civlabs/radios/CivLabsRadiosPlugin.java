@@ -1,21 +1,28 @@
 package com.civlabs.radios;
 
 import com.civlabs.radios.command.RadioTabCompleter;
+import com.civlabs.radios.core.AntennaCache;
 import com.civlabs.radios.core.FrequencyManager;
+import com.civlabs.radios.core.ProximityIndex;
 import com.civlabs.radios.core.RadioMode;
+import com.civlabs.radios.core.RadiosConfig;
+import com.civlabs.radios.listener.AntennaListener;
+import com.civlabs.radios.listener.ProximityListener;
 import com.civlabs.radios.listener.RadioBreakListener;
 import com.civlabs.radios.listener.RadioInteractListener;
 import com.civlabs.radios.listener.RadioPlaceListener;
+import com.civlabs.radios.listener.WorldListener;
 import com.civlabs.radios.model.DisableReason;
 import com.civlabs.radios.model.Radio;
+import com.civlabs.radios.store.RadioStorage;
 import com.civlabs.radios.store.RadioStore;
+import com.civlabs.radios.store.StorageMigrator;
 import com.civlabs.radios.tasks.OperatorGuardTask;
 import com.civlabs.radios.util.ItemUtil;
 import com.civlabs.radios.util.Keys;
 import com.civlabs.radios.util.SoundEffects;
 import com.civlabs.radios.voice.RadioVoicePlugin;
 import com.civlabs.radios.voice.VoiceBridge;
-import com.civlabs.radios.util.RadioMath;
 import de.maxhenkel.voicechat.api.BukkitVoicechatService;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.minimessage.MiniMessage;
@@ -27,6 +34,7 @@ import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import java.io.IOException;
 import java.util.UUID;
 
 /** Main plugin class for CivLabs Radios. */
@@ -36,17 +44,21 @@ public final class CivLabsRadiosPlugin extends JavaPlugin {
 
     private RadioStore radioStore;
     private FrequencyManager freqManager;
+    private AntennaCache antennaCache;
+    private ProximityIndex proximity;
     private VoiceBridge voice;
     private OperatorGuardTask guardTask;
     private SoundEffects sounds;
-    private RadioMode currentMode;
-    private boolean showCoordinates;
+    // swapped as a whole on reload; read from the main and voice threads
+    private volatile RadiosConfig config;
 
     public static NamespacedKey key(String path, JavaPlugin plugin) {
         return new NamespacedKey(plugin, path);
     }
 
     public Component msg(String path) {
+        Component parsed = config.messages().get(path);
+        if (parsed != null) return parsed;
         String raw = getConfig().getString(path, "");
         return mm.deserialize(raw == null ? "" : raw);
     }
@@ -62,10 +74,12 @@ public final class CivLabsRadiosPlugin extends JavaPlugin {
     @Override
     public void onDisable() {
         if (guardTask != null) guardTask.stop();
-        if (voice != null) voice.shutdownAllSpeakers();
+        if (voice != null) voice.shutdown();
+        if (radioStore == null) return; // storage never opened
         for (Radio r : radioStore.getAll()) {
             if (r.isEnabled()) disableRadioIfEnabled(r, DisableReason.SERVER_STOP);
         }
+        radioStore.close(); // last, so the disables above reach disk
         getLogger().info("CivLabsRadios disabled.");
     }
         private boolean initialize(){
@@ -75,11 +89,22 @@ public final class CivLabsRadiosPlugin extends JavaPlugin {
         saveDefaultConfig();
         Keys.init(this);
 
-        this.currentMode = RadioMode.valueOf(getConfig().getString("radioMode", "simple").toUpperCase());
-        this.showCoordinates = getConfig().getBoolean("admin.showCoordinates", false);
+        reloadSettings();
 
-        this.radioStore = new RadioStore(getDataFolder().toPath().resolve("radios.yml"));
-        this.freqManager = new FrequencyManager(getConfig().getInt("maxFrequencies", 10));
+        try {
+            this.radioStore = RadioStore.open(getDataFolder().toPath(), config.storageType(), config.storageFlushMillis(),
+                    config.storageSqlUrl(), getLogger());
+        } catch (IOException | IllegalStateException e) {
+            getLogger().severe("Could not open radio storage: " + e.getMessage());
+            e.printStackTrace();
+            getServer().getPluginManager().disablePlugin(this);
+            return false;
+        }
+        this.freqManager = new FrequencyManager(config.maxFrequencies());
+        this.antennaCache = new AntennaCache(this);
+        for (Radio r : radioStore.getAll()) antennaCache.track(r);
+        this.proximity = new ProximityIndex();
+        for (Player p : Bukkit.getOnlinePlayers()) proximity.update(p.getUniqueId(), p.getLocation()); // /reload
         this.voice = new VoiceBridge(this);
         
         this.sounds = new SoundEffects(this);
@@ -101,10 +126,18 @@ public final class CivLabsRadiosPlugin extends JavaPlugin {
         Bukkit.getPluginManager().registerEvents(new RadioPlaceListener(this), this);
         Bukkit.getPluginManager().registerEvents(new RadioInteractListener(this), this);
         Bukkit.getPluginManager().registerEvents(new RadioBreakListener(this), this);
+        Bukkit.getPluginManager().registerEvents(new AntennaListener(this), this);
+        Bukkit.getPluginManager().registerEvents(new ProximityListener(this), this);
+        Bukkit.getPluginManager().registerEvents(new WorldListener(this), this);
+    }
+    /** Rebuilds the typed config snapshot from the current getConfig() contents. */
+    private void reloadSettings() {
+        this.config = RadiosConfig.load(getConfig(), getLogger());
     }
+
     // Simple debug helper used by listeners/util classes
     public void dbg(String msg) {
-        if (getConfig().getBoolean("debug.enabled", false)) {
+        if (config.debug()) {
             getLogger().info("[DEBUG] " + msg);
         }
     }
@@ -112,11 +145,14 @@ public final class CivLabsRadiosPlugin extends JavaPlugin {
     // Accessors
     public RadioStore store() { return radioStore; }
     public FrequencyManager freq() { return freqManager; }
+    public AntennaCache antennas() { return antennaCache; }
+    public ProximityIndex proximity() { return proximity; }
     public VoiceBridge voice() { return voice; }
     public SoundEffects sounds() { return sounds; }
+    public RadiosConfig config() { return config; }
     public int getMaxFrequencies() { return freqManager.getMaxFrequencies(); }
-    public RadioMode getRadioMode() { return currentMode; }
-    public boolean showCoordinates() { return showCoordinates; }
+    public RadioMode getRadioMode() { return config.radioMode(); }
+    public boolean showCoordinates() { return config.showCoordinates(); }
 
     // Frequency lock check used in GUI
     public boolean isFrequencyLockedFor(int f, UUID requesterRadioId) {
@@ -142,8 +178,8 @@ public final class CivLabsRadiosPlugin extends JavaPlugin {
             return false;
         }
 
-        // require antennas/range recomputed
-        RadioMath.recomputeAntennaAndRange(r);
+        // require antennas/range up to date
+        antennaCache.refresh(r);
         if (r.getAntennaCount() <= 0 || r.getMaxRangeBlocks() <= 0) {
             operator.sendMessage(Component.text("§cNo vertical antenna stack found."));
             sounds().playError(operator);
@@ -178,10 +214,10 @@ public final class CivLabsRadiosPlugin extends JavaPlugin {
         UUID op = r.getOperator();
         if (op != null) voice.unbindOperator(op, r.getTransmitFrequency());
 
-        voice.removeSpeaker(r.getId());
         r.setEnabled(false);
         r.setOperator(null);
         radioStore.save(r);
+        voice.removeSpeaker(r.getId()); // after the save, so the voice thread can't revive it
 
         Player notify = op != null ? Bukkit.getPlayer(op) : null;
         if (notify != null) {
@@ -218,6 +254,8 @@ public final class CivLabsRadiosPlugin extends JavaPlugin {
                 sender.sendMessage(mm.deserialize("<yellow>/radio give [amount] [player|@a]</yellow> <gray>- Give a radio (admin)</gray>"));
                 sender.sendMessage(mm.deserialize("<yellow>/radio mode <simple|slider> [maxFreq]</yellow> <gray>- Change radio mode (admin)</gray>"));
                 sender.sendMessage(mm.deserialize("<yellow>/radio reload</yellow> <gray>- Reload configuration (admin)</gray>"));
+                sender.sendMessage(mm.deserialize("<yellow>/radio stats [reset]</yellow> <gray>- Voice pipeline stats (admin)</gray>"));
+                sender.sendMessage(mm.deserialize("<yellow>/radio storage migrate <from> <to> [--replace]</yellow> <gray>- Copy radios between storage backends (admin)</gray>"));
             }
             //sender.sendMessage(mm.deserialize("<yellow>/radio operatorMode <on|off|toggle></yellow> <gray>- Toggle operator system (admin)</gray>"));
             //sender.sendMessage(mm.deserialize("<yellow>/radio radius</yellow> <gray>- Show/set operator/speaker radius (admin)</gray>"));
@@ -238,15 +276,16 @@ public final class CivLabsRadiosPlugin extends JavaPlugin {
                 if (!sender.hasPermission("civlabs.radio.admin")) { sender.sendMessage("No permission"); return true; }
                 if (args.length < 2) { sender.sendMessage("Usage: /radio mode <simple|slider> [maxFreq]"); return true; }
                 boolean slider = switch (args[1].toLowerCase()) { case "simple" -> false; case "slider" -> true; default -> { sender.sendMessage("Invalid mode. Use simple|slider."); yield false; } };
-                int maxFreq = getConfig().getInt("maxFrequencies", 10);
+                int maxFreq = config.maxFrequencies();
                 if (slider && args.length >= 3) {
                     try { maxFreq = Math.max(1, Math.min(1024, Integer.parseInt(args[2]))); }
                     catch (NumberFormatException e) { sender.sendMessage("Invalid max frequency."); return true; }
                 } else if (!slider) {
-                    maxFreq = getConfig().getInt("simpleFrequencies", 9);
+                    maxFreq = config.simpleFrequencies();
                 }
                 getConfig().set("maxFrequencies", maxFreq);
                 saveConfig();
+                reloadSettings();
                 this.freqManager = new FrequencyManager(maxFreq);
                 for (Radio r : radioStore.getAll()) {
                     if (r.isEnabled() && r.getTransmitFrequency() > maxFreq) disableRadioIfEnabled(r, DisableReason.ADMIN);
@@ -257,19 +296,80 @@ public final class CivLabsRadiosPlugin extends JavaPlugin {
             case "reload" -> {
                 if (!sender.hasPermission("civlabs.radio.admin")) { sender.sendMessage("No permission"); return true; }
                 reloadConfig();
-                int maxFreq = getConfig().getInt("maxFrequencies", freqManager.getMaxFrequencies());
+                reloadSettings();
+                int maxFreq = config.maxFrequencies();
                 this.freqManager = new FrequencyManager(maxFreq);
                 for (Radio r : radioStore.getAll()) {
                     if (r.isEnabled() && r.getTransmitFrequency() > maxFreq) disableRadioIfEnabled(r, DisableReason.ADMIN);
                 }
-                voice.loadConfig();
                 sender.sendMessage("Configuration reloaded.");
                 return true;
             }
+            case "stats" -> {
+                if (!sender.hasPermission("civlabs.radio.admin")) { sender.sendMessage("No permission"); return true; }
+                if (args.length >= 2 && args[1].equalsIgnoreCase("reset")) {
+                    voice.stats().reset();
+                    sender.sendMessage("Voice stats reset.");
+                    return true;
+                }
+                sender.sendMessage(mm.deserialize("<gold>═══Voice stats═══</gold>"));
+                for (String line : voice.statsReport()) sender.sendMessage(line);
+                return true;
+            }
+            case "storage" -> {
+                if (!sender.hasPermission("civlabs.radio.admin")) { sender.sendMessage("No permission"); return true; }
+                if (args.length < 4 || !args[1].equalsIgnoreCase("migrate")) {
+                    sender.sendMessage("Usage: /radio storage migrate <" + String.join("|", RadioStorage.TYPES) + "> <to> [--replace]");
+                    sender.sendMessage("Active storage: " + radioStore.storageName());
+                    return true;
+                }
+                boolean replace = args.length > 4 && args[4].equalsIgnoreCase("--replace");
+                migrateStorage(sender, args[2].toLowerCase(), args[3].toLowerCase(), replace);
+                return true;
+            }
             default -> {
-                sender.sendMessage("Unknown subcommand. Use /radio give | /radio mode | /radio reload");
+                sender.sendMessage("Unknown subcommand. Use /radio give | /radio mode | /radio reload | /radio stats | /radio storage");
                 return true;
             }
         }
     }
+
+    // copies radios between backends off the main thread; the live store keeps running on its own backend.
+    // radios only the target has survive unless replace is set; the result says how many there were
+    private void migrateStorage(CommandSender sender, String from, String to, boolean replace) {
+        String active = radioStore.storageName();
+        if (from.equals(to)) { sender.sendMessage("Source and target are the same."); return; }
+        if (to.equals(active)) { sender.sendMessage("Can't migrate into the active storage (" + active + ")."); return; }
+        RadioStorage source, target;
+        try {
+            source = from.equals(active) ? null : RadioStorage.create(from, getDataFolder().toPath(), config.storageSqlUrl());
+            target = RadioStorage.create(to, getDataFolder().toPath(), config.storageSqlUrl());
+        } catch (IllegalArgumentException e) {
+            sender.sendMessage(e.getMessage() + ". Use " + String.join(", ", RadioStorage.TYPES) + ".");
+            return;
+        }
+        // the live store is the freshest copy of its own backend
+        var live = source == null ? radioStore.snapshotRecords() : null;
+        sender.sendMessage("Migrating radios from " + from + " to " + to + (replace ? " (replacing)..." : "..."));
+        Bukkit.getScheduler().runTaskAsynchronously(this, () -> {
+            String result;
+            try {
+                StorageMigrator.Result r = source == null
+                        ? StorageMigrator.migrate(live, target, replace)
+                        : StorageMigrator.migrate(source, target, replace);
+                result = "Migrated " + r.copied() + " radios from " + from + " to " + to + ".";
+                if (r.stale() > 0) {
+                    result += r.replaced()
+                            ? " Dropped " + r.stale() + " radios that were only in " + to + "."
+                            : " Kept " + r.stale() + " radios that are only in " + to + "; add --replace to drop them.";
+                }
+                result += " Set storage.type: " + to + " and restart to use it.";
+            } catch (Throwable e) {
+                getLogger().warning("Storage migration " + from + " -> " + to + " failed: " + e);
+                result = "Migration failed: " + e.getMessage();
+            }
+            String msg = result;
+            Bukkit.getScheduler().runTask(this, () -> sender.sendMessage(msg));
+        });
+    }
 }
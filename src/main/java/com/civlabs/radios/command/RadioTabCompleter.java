@@ -2,6 +2,7 @@ package com.civlabs.radios.command;
 
 import com.civlabs.radios.CivLabsRadiosPlugin;
 import com.civlabs.radios.model.Radio;
+import com.civlabs.radios.store.RadioStorage;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandSender;
 import org.bukkit.command.TabCompleter;
@@ -31,7 +32,7 @@ public class RadioTabCompleter implements TabCompleter {
         if (!command.getName().equalsIgnoreCase("radio")) return Collections.emptyList();
 
         if (args.length == 0 || args.length == 1) {
-            return prefix(Arrays.asList("help", "give",  "mode", "reload"),
+            return prefix(Arrays.asList("help", "give",  "mode", "reload", "stats", "storage"),
                     args.length == 0 ? "" : args[0]);
         }
 
@@ -46,6 +47,22 @@ public class RadioTabCompleter implements TabCompleter {
                 }
                 return Collections.emptyList();
             }
+            case "stats": {
+                if (args.length == 2) {
+                    return prefix(Collections.singletonList("reset"), args[1]);
+                }
+                return Collections.emptyList();
+            }
+            case "storage": {
+                if (args.length == 2) {
+                    return prefix(Collections.singletonList("migrate"), args[1]);
+                } else if (args.length == 3 || args.length == 4) {
+                    return prefix(Arrays.asList(RadioStorage.TYPES), args[args.length - 1]);
+                } else if (args.length == 5) {
+                    return prefix(Collections.singletonList("--replace"), args[4]);
+                }
+                return Collections.emptyList();
+            }
             /* 
             case "coords":
             case "debug": {
@@ -0,0 +1,162 @@
+package com.civlabs.radios.core;
+
+import com.civlabs.radios.CivLabsRadiosPlugin;
+import com.civlabs.radios.model.Radio;
+import com.civlabs.radios.util.AntennaUtil;
+import com.civlabs.radios.util.RadioMath;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+
+import java.util.*;
+
+/**
+ * Keeps each radio's antennaCount/maxRangeBlocks valid without scanning the world
+ * on every use. Radios are indexed by the block column above them; only block
+ * changes inside a tracked column mark a radio dirty, and dirty radios are
+ * rescanned once on the next tick.
+ * Rescans never load a chunk: each loaded chunk with dirty radios is copied into a
+ * ChunkSnapshot, the columns are counted on an async worker and the results are
+ * applied back on the main thread. Radios in unloaded chunks wait for ChunkLoadEvent.
+ * Everything but the column count runs on the main thread.
+ */
+public class AntennaCache {
+
+    private record Column(String world, int x, int z) {}
+    private record ChunkKey(String world, int cx, int cz) {}
+    private record Scan(UUID id, int x, int y, int z, long gen) {}
+
+    private final CivLabsRadiosPlugin plugin;
+    private final Map<Column, Set<UUID>> columns = new HashMap<>();
+    private final Set<UUID> dirty = new HashSet<>();
+    private final Map<ChunkKey, Set<UUID>> waiting = new HashMap<>(); // dirty radios in unloaded chunks
+    // bumped on every invalidation; a scan result only lands if it is still the latest
+    private final Map<UUID, Long> pending = new HashMap<>();
+    private long nextGen;
+    private boolean flushScheduled;
+
+    public AntennaCache(CivLabsRadiosPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /** Starts watching the column above r; its cached values are rescanned on the next tick. */
+    public void track(Radio r) {
+        if (r.getWorld() == null) return;
+        columns.computeIfAbsent(new Column(r.getWorld(), r.getX(), r.getZ()), k -> new HashSet<>()).add(r.getId());
+        markDirty(r.getId());
+    }
+
+    public void untrack(Radio r) {
+        dirty.remove(r.getId());
+        pending.remove(r.getId());
+        if (r.getWorld() == null) return;
+        Column c = new Column(r.getWorld(), r.getX(), r.getZ());
+        Set<UUID> ids = columns.get(c);
+        if (ids != null && ids.remove(r.getId()) && ids.isEmpty()) columns.remove(c);
+        ChunkKey k = new ChunkKey(r.getWorld(), r.getX() >> 4, r.getZ() >> 4);
+        Set<UUID> w = waiting.get(k);
+        if (w != null && w.remove(r.getId()) && w.isEmpty()) waiting.remove(k);
+    }
+
+    /** Called for every block that is about to change; dirties radios strictly below it. */
+    public void onBlockChanged(Block b) {
+        Set<UUID> ids = columns.get(new Column(b.getWorld().getName(), b.getX(), b.getZ()));
+        if (ids == null) return;
+        for (UUID id : ids) {
+            Radio r = plugin.store().get(id);
+            if (r != null && b.getY() > r.getY()) markDirty(id);
+        }
+    }
+
+    /** Rescans radios that went stale while their chunk was unloaded. */
+    public void onChunkLoaded(Chunk c) {
+        if (waiting.isEmpty()) return; // the usual case, and chunks load all the time
+        Set<UUID> ids = waiting.remove(new ChunkKey(c.getWorld().getName(), c.getX(), c.getZ()));
+        if (ids != null) for (UUID id : ids) markDirty(id);
+    }
+
+    /**
+     * Brings r's cached antenna/range up to date right now if it is stale and its chunk
+     * is loaded; used where the caller needs the answer in the same tick.
+     */
+    public void refresh(Radio r) {
+        if (pending.containsKey(r.getId())) rescan(r);
+    }
+
+    /**
+     * Rescans r now even if nothing invalidated it (GUI "recompute"), and saves it.
+     * Returns false if its chunk isn't loaded; r is then left as it was.
+     */
+    public boolean rescan(Radio r) {
+        if (!RadioMath.recomputeAntennaAndRange(r)) return false;
+        // fresher than any scan still in flight, so that one must not land over it
+        pending.remove(r.getId());
+        dirty.remove(r.getId());
+        plugin.store().save(r); // republish + persist; a no-op if nothing changed
+        return true;
+    }
+
+    private void markDirty(UUID id) {
+        dirty.add(id);
+        pending.put(id, ++nextGen);
+        if (flushScheduled) return;
+        flushScheduled = true;
+        // events fire before the block changes, so rescan once it has been applied
+        Bukkit.getScheduler().runTask(plugin, this::flush);
+    }
+
+    private void flush() {
+        flushScheduled = false;
+        Map<ChunkKey, List<Scan>> byChunk = new HashMap<>();
+        for (UUID id : dirty) {
+            Radio r = plugin.store().get(id);
+            Long gen = pending.get(id);
+            if (r == null || r.getWorld() == null || gen == null) continue;
+            byChunk.computeIfAbsent(new ChunkKey(r.getWorld(), r.getX() >> 4, r.getZ() >> 4), k -> new ArrayList<>())
+                    .add(new Scan(id, r.getX(), r.getY(), r.getZ(), gen));
+        }
+        dirty.clear();
+
+        for (Map.Entry<ChunkKey, List<Scan>> e : byChunk.entrySet()) {
+            ChunkKey k = e.getKey();
+            World w = Bukkit.getWorld(k.world());
+            if (w == null || !w.isChunkLoaded(k.cx(), k.cz())) {
+                Set<UUID> ids = waiting.computeIfAbsent(k, x -> new HashSet<>());
+                for (Scan s : e.getValue()) ids.add(s.id());
+                continue;
+            }
+            // one copy per chunk, however many radios share it
+            ChunkSnapshot snap = w.getChunkAt(k.cx(), k.cz()).getChunkSnapshot(false, false, false);
+            int maxY = w.getMaxHeight();
+            List<Scan> scans = e.getValue();
+            Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+                int[] rods = new int[scans.size()];
+                for (int i = 0; i < rods.length; i++) {
+                    Scan s = scans.get(i);
+                    rods[i] = AntennaUtil.countVerticalRodsAbove(snap, s.x(), s.y(), s.z(), maxY);
+                }
+                if (plugin.isEnabled()) Bukkit.getScheduler().runTask(plugin, () -> apply(scans, rods));
+            });
+        }
+    }
+
+    private void apply(List<Scan> scans, int[] rods) {
+        for (int i = 0; i < rods.length; i++) {
+            Scan s = scans.get(i);
+            Long gen = pending.get(s.id());
+            if (gen == null || gen != s.gen()) continue; // invalidated again or refreshed since
+            pending.remove(s.id());
+            Radio r = plugin.store().get(s.id());
+            if (r == null) continue;
+            int range = RadioMath.maxRangeBlocks(rods[i], r.getY());
+            if (rods[i] != r.getAntennaCount() || range != r.getMaxRangeBlocks()) {
+                r.setAntennaCount(rods[i]);
+                r.setMaxRangeBlocks(range);
+                plugin.store().save(r);
+                plugin.dbg("Antenna change for radio " + s.id() + ": " + r.getAntennaCount() + " rods, " + r.getMaxRangeBlocks() + " blocks");
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.civlabs.radios.core;
+
+import com.civlabs.radios.store.RadioTopology;
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Counts online players per chunk so the voice thread can skip receivers that
+ * nobody is near. Counts are written on the main thread when a player changes
+ * chunk; each receiver's audible flag is recomputed lazily by the voice thread,
+ * and only after some player has moved between chunks since the last check.
+ */
+public class ProximityIndex {
+
+    private record Spot(String world, long chunk) {}
+
+    // world -> chunk key -> players in that chunk
+    private final Map<String, Map<Long, Integer>> occupancy = new ConcurrentHashMap<>();
+    private final Map<UUID, Spot> where = new HashMap<>(); // main thread only
+    private volatile long epoch;
+
+    // voice thread only; per receiver
+    private static final class Flag {
+        long epoch = -1;
+        int radius;
+        boolean audible;
+    }
+    private final Map<UUID, Flag> flags = new ConcurrentHashMap<>();
+
+    /** Records player's current chunk. Cheap when it did not change. Main thread. */
+    public void update(UUID player, Location loc) {
+        World w = loc == null ? null : loc.getWorld();
+        if (w == null) {
+            remove(player);
+            return;
+        }
+        long chunk = chunkKey(loc.getBlockX() >> 4, loc.getBlockZ() >> 4);
+        Spot prev = where.get(player);
+        if (prev != null && prev.chunk() == chunk && prev.world().equals(w.getName())) return;
+
+        Spot now = new Spot(w.getName(), chunk);
+        where.put(player, now);
+        if (prev != null) leave(prev);
+        occupancy.computeIfAbsent(now.world(), k -> new ConcurrentHashMap<>()).merge(now.chunk(), 1, Integer::sum);
+        epoch++;
+    }
+
+    /** Forgets player, e.g. on quit. Main thread. */
+    public void remove(UUID player) {
+        Spot prev = where.remove(player);
+        if (prev == null) return;
+        leave(prev);
+        epoch++;
+    }
+
+    private void leave(Spot s) {
+        Map<Long, Integer> chunks = occupancy.get(s.world());
+        if (chunks != null) chunks.computeIfPresent(s.chunk(), (k, n) -> n > 1 ? n - 1 : null);
+    }
+
+    /**
+     * True if some player is in a chunk touching the square of the given radius
+     * around rx. Errs on the audible side; the speaker itself does the exact falloff.
+     */
+    public boolean isAudible(RadioTopology.Node rx, int radius) {
+        Flag f = flags.get(rx.id());
+        if (f == null) f = flags.computeIfAbsent(rx.id(), k -> new Flag());
+        long e = epoch;
+        if (f.epoch == e && f.radius == radius) return f.audible;
+        f.audible = scan(rx, radius);
+        f.radius = radius;
+        f.epoch = e;
+        return f.audible;
+    }
+
+    private boolean scan(RadioTopology.Node rx, int radius) {
+        Map<Long, Integer> chunks = rx.world() == null ? null : occupancy.get(rx.world());
+        if (chunks == null || chunks.isEmpty()) return false;
+        int minX = (rx.x() - radius) >> 4, maxX = (rx.x() + radius) >> 4;
+        int minZ = (rx.z() - radius) >> 4, maxZ = (rx.z() + radius) >> 4;
+        for (int cx = minX; cx <= maxX; cx++) {
+            for (int cz = minZ; cz <= maxZ; cz++) {
+                if (chunks.containsKey(chunkKey(cx, cz))) return true;
+            }
+        }
+        return false;
+    }
+
+    /** Drops the cached flag of a removed receiver. */
+    public void forget(UUID radioId) {
+        flags.remove(radioId);
+    }
+
+    public int trackedPlayers() { return where.size(); }
+
+    private static long chunkKey(int cx, int cz) {
+        return ((long) cx << 32) | (cz & 0xffffffffL);
+    }
+}
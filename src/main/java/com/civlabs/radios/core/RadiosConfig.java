@@ -0,0 +1,103 @@
+package com.civlabs.radios.core;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+import org.bukkit.Sound;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Typed, immutable view of config.yml.
+ * Built once on enable and on /radio reload, then swapped in as a whole so the
+ * voice thread never sees a half-applied reload.
+ */
+public record RadiosConfig(
+        RadioMode radioMode,
+        int maxFrequencies,
+        int simpleFrequencies,
+        int speakerRadius,
+        boolean showCoordinates,
+        boolean allowItemDropOnBreak,
+        boolean debug,
+        boolean debugVoice,
+        boolean interferenceEnabled,
+        int sampleRate,
+        double maxNoiseDb,
+        double farDistance,
+        long codecIdleMillis,
+        long speakerIdleMillis,
+        boolean simdMixing,
+        boolean isolateOperatorInTxGroup,
+        String storageType,
+        long storageFlushMillis,
+        String storageSqlUrl,
+        Map<String, Sound> sounds,
+        Map<String, Component> messages
+) {
+
+    public static RadiosConfig load(FileConfiguration c, Logger log) {
+        RadioMode mode;
+        try { mode = RadioMode.valueOf(c.getString("radioMode", "simple").toUpperCase()); }
+        catch (IllegalArgumentException e) {
+            log.warning("Invalid radioMode '" + c.getString("radioMode") + "', using simple.");
+            mode = RadioMode.SIMPLE;
+        }
+
+        return new RadiosConfig(
+                mode,
+                c.getInt("maxFrequencies", 10),
+                c.getInt("simpleFrequencies", 9),
+                c.getInt("speakerRadius", 30),
+                c.getBoolean("admin.showCoordinates", false),
+                c.getBoolean("allowItemDropOnBreak", true),
+                c.getBoolean("debug.enabled", false),
+                c.getBoolean("debug.voice", false),
+                c.getBoolean("voice.interference.enabled", true),
+                c.getInt("voice.sampleRate", 48000),
+                c.getDouble("voice.interference.maxNoiseDb", -24.0),
+                c.getDouble("voice.interference.farDistance", 6000.0),
+                c.getLong("voice.codecIdleSeconds", 30L) * 1000L,
+                c.getLong("voice.speakerIdleSeconds", 120L) * 1000L,
+                c.getBoolean("voice.simdMixing", true),
+                c.getBoolean("voice.isolateOperatorInTxGroup", false),
+                c.getString("storage.type", "yaml"),
+                c.getLong("storage.flushIntervalSeconds", 5L) * 1000L,
+                c.getString("storage.sql.url", ""),
+                loadSounds(c.getConfigurationSection("sounds"), log),
+                loadMessages(c.getConfigurationSection("messages"))
+        );
+    }
+
+    // only valid names are kept; callers fall back to their own default
+    private static Map<String, Sound> loadSounds(ConfigurationSection sec, Logger log) {
+        Map<String, Sound> out = new HashMap<>();
+        if (sec == null) return Map.of();
+        for (String key : sec.getKeys(false)) {
+            if (sec.isBoolean(key)) continue; // sounds.enabled
+            String soundName = sec.getString(key, "");
+            if (soundName == null || soundName.isEmpty()) continue;
+            try {
+                out.put(key, Sound.valueOf(soundName.toUpperCase())); // this is deprecated, need to change
+            } catch (IllegalArgumentException ex) {
+                log.warning("[SoundEffects] Invalid sound name: '" + soundName + "' for key '" + key + "'");
+            }
+        }
+        return Map.copyOf(out);
+    }
+
+    // keyed by full path ("messages.enabled") to match msg(path)
+    private static Map<String, Component> loadMessages(ConfigurationSection sec) {
+        if (sec == null) return Map.of();
+        MiniMessage mm = MiniMessage.miniMessage();
+        Map<String, Component> out = new HashMap<>();
+        for (String key : sec.getKeys(false)) {
+            String raw = sec.getString(key, "");
+            out.put("messages." + key, mm.deserialize(raw == null ? "" : raw));
+        }
+        return Map.copyOf(out);
+    }
+}
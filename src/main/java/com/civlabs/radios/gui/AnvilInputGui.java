@@ -75,11 +75,11 @@ public class AnvilInputGui implements Listener {
                 p.sendMessage(Component.text("§a✓ Set TX frequency to " + freq));
             } else {
                 r.setListenFrequency(freq);
-                plugin.voice().updateSpeakerFor(r);
                 p.sendMessage(Component.text("§a✓ Set RX frequency to " + freq));
             }
             
             plugin.store().save(r);
+            plugin.voice().updateSpeakerFor(r);
             plugin.sounds().playFrequencyChange(p);
             
             // Reopen GUI
@@ -24,7 +24,7 @@ public class FrequencyOverviewGui implements Listener {
     private static final Map<UUID, Integer> playerPages = new HashMap<>();
 
     public static void open(CivLabsRadiosPlugin plugin, Player viewer, Radio returnToRadio, int page) {
-        List<Radio> allRadios = plugin.store().getAll();
+        Collection<Radio> allRadios = plugin.store().getAll();
         Map<Integer, Radio> activeFrequencies = allRadios.stream()
             .filter(Radio::isEnabled)
             .collect(Collectors.toMap(
@@ -90,8 +90,7 @@ public class RadioGui {
                 Component.text("Radio").color(getDimensionColor(r.getDimension())));
 
         // Update antenna/range snapshot for info card
-        RadioMath.recomputeAntennaAndRange(r);
-        plugin.store().save(r);
+        plugin.antennas().refresh(r);
 
         // Frequencies for this page
         int startFreq = page * 9 + 1;
@@ -227,8 +226,7 @@ public class RadioGui {
         // Info (force recompute)
         if (inTop && raw == SLOT_INFO) {
             e.setCancelled(true);
-            RadioMath.recomputeAntennaAndRange(r);
-            plugin.store().save(r);
+            plugin.antennas().rescan(r);
             e.getInventory().setItem(SLOT_INFO, infoItem(r));
             e.getInventory().setItem(SLOT_RANGE, rangeItem(r.getRangeStep(), r.getFinalRangeBlocks(), r.getMaxRangeBlocks()));
             plugin.sounds().playClick(p);
@@ -0,0 +1,76 @@
+package com.civlabs.radios.listener;
+
+import com.civlabs.radios.CivLabsRadiosPlugin;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockExplodeEvent;
+import org.bukkit.event.block.BlockPistonExtendEvent;
+import org.bukkit.event.block.BlockPistonRetractEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
+import org.bukkit.event.world.ChunkLoadEvent;
+
+import java.util.List;
+
+/** Feeds block changes and chunk loads to the antenna cache so rod stacks are only rescanned when they change. */
+public class AntennaListener implements Listener {
+
+    private final CivLabsRadiosPlugin plugin;
+
+    public AntennaListener(CivLabsRadiosPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlace(BlockPlaceEvent e) {
+        plugin.antennas().onBlockChanged(e.getBlockPlaced());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBreak(BlockBreakEvent e) {
+        plugin.antennas().onBlockChanged(e.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPistonExtend(BlockPistonExtendEvent e) {
+        moved(e.getBlock(), e.getBlocks(), e.getDirection());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPistonRetract(BlockPistonRetractEvent e) {
+        moved(e.getBlock(), e.getBlocks(), e.getDirection());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockExplode(BlockExplodeEvent e) {
+        for (Block b : e.blockList()) plugin.antennas().onBlockChanged(b);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityExplode(EntityExplodeEvent e) {
+        for (Block b : e.blockList()) plugin.antennas().onBlockChanged(b);
+    }
+
+    // radios whose column changed while unloaded can be rescanned now
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkLoad(ChunkLoadEvent e) {
+        plugin.antennas().onChunkLoaded(e.getChunk());
+    }
+
+    // the piston head and every pushed/pulled block, on both sides along the axis;
+    // a few extra column probes are cheaper than relying on the event's direction semantics
+    private void moved(Block piston, List<Block> blocks, BlockFace dir) {
+        around(piston, dir);
+        for (Block b : blocks) around(b, dir);
+    }
+
+    private void around(Block b, BlockFace dir) {
+        plugin.antennas().onBlockChanged(b);
+        plugin.antennas().onBlockChanged(b.getRelative(dir));
+        plugin.antennas().onBlockChanged(b.getRelative(dir.getOppositeFace()));
+    }
+}
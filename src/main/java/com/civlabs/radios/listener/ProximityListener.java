@@ -0,0 +1,63 @@
+package com.civlabs.radios.listener;
+
+import com.civlabs.radios.CivLabsRadiosPlugin;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerRespawnEvent;
+import org.bukkit.event.player.PlayerTeleportEvent;
+
+/** Feeds player chunk changes to the proximity index used to cull unheard receivers. */
+public class ProximityListener implements Listener {
+
+    private final CivLabsRadiosPlugin plugin;
+
+    public ProximityListener(CivLabsRadiosPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onMove(PlayerMoveEvent e) {
+        Location from = e.getFrom(), to = e.getTo();
+        if (from.getWorld() == to.getWorld()
+                && from.getBlockX() >> 4 == to.getBlockX() >> 4
+                && from.getBlockZ() >> 4 == to.getBlockZ() >> 4) return;
+        plugin.proximity().update(e.getPlayer().getUniqueId(), to);
+    }
+
+    // PlayerTeleportEvent has its own HandlerList, so /tp, homes and pearls don't reach onMove
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onTeleport(PlayerTeleportEvent e) {
+        plugin.proximity().update(e.getPlayer().getUniqueId(), e.getTo());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onJoin(PlayerJoinEvent e) {
+        track(e.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent e) {
+        plugin.proximity().remove(e.getPlayer().getUniqueId());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldChange(PlayerChangedWorldEvent e) {
+        track(e.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onRespawn(PlayerRespawnEvent e) {
+        plugin.proximity().update(e.getPlayer().getUniqueId(), e.getRespawnLocation());
+    }
+
+    private void track(Player p) {
+        plugin.proximity().update(p.getUniqueId(), p.getLocation());
+    }
+}
@@ -35,8 +35,10 @@ public class RadioBreakListener implements Listener {
 
         plugin.disableRadioIfEnabled(r, DisableReason.BLOCK_BROKEN);
         plugin.store().delete(id);
+        plugin.antennas().untrack(r);
+        plugin.voice().removeSpeaker(id);
 
-        if (plugin.getConfig().getBoolean("allowItemDropOnBreak", true)) {
+        if (plugin.config().allowItemDropOnBreak()) {
             e.setDropItems(false);
             b.getWorld().dropItemNaturally(b.getLocation(), ItemUtil.createRadioItem(plugin));
         }
@@ -3,7 +3,9 @@ package com.civlabs.radios.listener;
 import com.civlabs.radios.CivLabsRadiosPlugin;
 import com.civlabs.radios.gui.RadioGui;
 import com.civlabs.radios.model.Radio;
+import com.civlabs.radios.util.Keys;
 import org.bukkit.block.Block;
+import org.bukkit.block.TileState;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
@@ -12,6 +14,7 @@ import org.bukkit.event.inventory.InventoryClickEvent;
 import org.bukkit.event.inventory.InventoryDragEvent;
 import org.bukkit.event.player.PlayerInteractEvent;
 import org.bukkit.inventory.InventoryHolder;
+import org.bukkit.persistence.PersistentDataType;
 
 import java.util.Set;
 
@@ -33,8 +36,10 @@ public class RadioInteractListener implements Listener {
 
         Block b = e.getClickedBlock();
 
-        // We rely on stored location → radio mapping, so no hard Material check needed.
-        // If you want to optimize, you could check for Material.SMOKER here.
+        // fires for every right-click on the server: only radio blocks carry our tag.
+        // getState(false) reads the live tile entity instead of copying a snapshot
+        if (!(b.getState(false) instanceof TileState ts)) return;
+        if (!ts.getPersistentDataContainer().has(Keys.RADIO_ID, PersistentDataType.STRING)) return;
 
         plugin.store().byLocation(b.getLocation()).ifPresent(r -> {
             // Cancel default container opening and show our GUI
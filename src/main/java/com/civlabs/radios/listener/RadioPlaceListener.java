@@ -36,6 +36,7 @@ public class RadioPlaceListener implements Listener {
 
         Radio r = new Radio(id, b.getLocation(), e.getPlayer().getUniqueId());
         plugin.store().save(r);
+        plugin.antennas().track(r);
         plugin.sounds().playClick(e.getPlayer());
 
         plugin.dbg("Placed radio " + id + " at " + b.getLocation() + " in " + r.getDimension());
@@ -0,0 +1,28 @@
+package com.civlabs.radios.listener;
+
+import com.civlabs.radios.CivLabsRadiosPlugin;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.WorldLoadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+
+/** Keeps the voice bridge's world map current, so the voice thread never asks Bukkit for a world. */
+public class WorldListener implements Listener {
+
+    private final CivLabsRadiosPlugin plugin;
+
+    public WorldListener(CivLabsRadiosPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onLoad(WorldLoadEvent e) {
+        plugin.voice().worldLoaded(e.getWorld());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onUnload(WorldUnloadEvent e) {
+        plugin.voice().worldUnloaded(e.getWorld());
+    }
+}
@@ -1,5 +1,6 @@
 package com.civlabs.radios.model;
 
+import com.civlabs.radios.util.RadioMath;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.World;
@@ -8,7 +9,7 @@ import java.util.UUID;
 
 /**
  * Radio data model — includes:
- * - Fuel tracking (remaining seconds)
+ * - Fuel tracking (remaining seconds, burned lazily: see reprice)
  * - Lifetime fuel accumulation (totalFuelAddedSeconds)
  * - Antenna / range info (rangeStep 1..5, derived final range)
  */
@@ -25,7 +26,11 @@ public class Radio {
     private UUID operator;
 
     // --- Fuel ---
-    private int fuelSeconds;              // Remaining seconds of fuel
+    // ledger: fuelSeconds is the amount at fuelCheckpointMillis, burning burnPerSecond since then.
+    // nothing ticks it down; getFuelSeconds() works out what is left when asked
+    private int fuelSeconds;              // Remaining seconds of fuel at the checkpoint
+    private long fuelCheckpointMillis;
+    private int burnPerSecond;            // 0 = not burning
 
     // remember to delete or disable this variable in release
     private int totalFuelAddedSeconds;    // Lifetime count of seconds added from copper
@@ -72,7 +77,7 @@ public class Radio {
     public void setOwner(UUID owner) { this.owner = owner; }
 
     public boolean isEnabled() { return enabled; }
-    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; reprice(); }
 
     public int getTransmitFrequency() { return transmitFrequency; }
     public void setTransmitFrequency(int transmitFrequency) { this.transmitFrequency = transmitFrequency; }
@@ -84,14 +89,63 @@ public class Radio {
     public void setOperator(UUID operator) { this.operator = operator; }
 
     // --- Fuel ---
-    public int getFuelSeconds() { return fuelSeconds; }
+    public int getFuelSeconds() { return fuelAt(System.currentTimeMillis()); }
     public void setFuelSeconds(int fuelSeconds) {
+        checkpoint();
         this.fuelSeconds = Math.max(0, fuelSeconds);
     }
     public void addFuelSeconds(int add) {
+        checkpoint();
         this.fuelSeconds = Math.max(0, this.fuelSeconds + Math.max(0, add));
     }
-    public boolean hasFuel() { return fuelSeconds > 0; }
+    public boolean hasFuel() { return getFuelSeconds() > 0; }
+
+    /** Fuel as of the last ledger checkpoint; only moves when the ledger is checkpointed. */
+    public int getCheckpointFuelSeconds() { return fuelSeconds; }
+
+    /** Fuel left at time now, burning whole seconds like the old per-second drain. */
+    public int fuelAt(long now) {
+        if (burnPerSecond == 0) return fuelSeconds;
+        long burned = Math.max(0, now - fuelCheckpointMillis) / 1000 * burnPerSecond;
+        return (int) Math.max(0, fuelSeconds - burned);
+    }
+
+    public int getBurnPerSecond() { return burnPerSecond; }
+
+    /**
+     * Prices the burn from the current state: f(R_final) = 1.002^R_final - 1, at least 1/s,
+     * while enabled with an antenna stack, else nothing. Called by every setter it depends on,
+     * so the ledger is always current before the radio is saved. What burned so far is kept.
+     */
+    private void reprice() {
+        int rate = enabled && antennaCount > 0 && maxRangeBlocks > 0
+                ? Math.max(1, RadioMath.burnPerSecond(getFinalRangeBlocks())) : 0;
+        if (rate == burnPerSecond) return;
+        checkpoint();
+        burnPerSecond = rate;
+    }
+
+    /** When the fuel runs out at the current rate, or Long.MAX_VALUE if it isn't burning. */
+    public long fuelExhaustedAtMillis() {
+        if (burnPerSecond == 0) return Long.MAX_VALUE;
+        long seconds = (fuelSeconds + burnPerSecond - 1) / burnPerSecond;
+        return fuelCheckpointMillis + seconds * 1000;
+    }
+
+    /**
+     * Folds the burn so far into the checkpoint fuel (what gets persisted); keeps the part
+     * second so nothing burns early or late.
+     */
+    public void checkpoint() {
+        long now = System.currentTimeMillis();
+        if (burnPerSecond != 0) {
+            long secs = Math.max(0, now - fuelCheckpointMillis) / 1000;
+            fuelSeconds = (int) Math.max(0, fuelSeconds - secs * burnPerSecond);
+            fuelCheckpointMillis += secs * 1000;
+        } else {
+            fuelCheckpointMillis = now;
+        }
+    }
 
     // --- Lifetime fuel total ---
     public int getTotalFuelAddedSeconds() { return totalFuelAddedSeconds; }
@@ -104,13 +158,13 @@ public class Radio {
 
     // --- Range / antenna ---
     public int getAntennaCount() { return antennaCount; }
-    public void setAntennaCount(int antennaCount) { this.antennaCount = Math.max(0, antennaCount); }
+    public void setAntennaCount(int antennaCount) { this.antennaCount = Math.max(0, antennaCount); reprice(); }
 
     public int getMaxRangeBlocks() { return maxRangeBlocks; }
-    public void setMaxRangeBlocks(int maxRangeBlocks) { this.maxRangeBlocks = Math.max(0, maxRangeBlocks); }
+    public void setMaxRangeBlocks(int maxRangeBlocks) { this.maxRangeBlocks = Math.max(0, maxRangeBlocks); reprice(); }
 
     public int getRangeStep() { return rangeStep; }
-    public void setRangeStep(int rangeStep) { this.rangeStep = Math.min(5, Math.max(1, rangeStep)); }
+    public void setRangeStep(int rangeStep) { this.rangeStep = Math.min(5, Math.max(1, rangeStep)); reprice(); }
 
     /** Final selected range in blocks = (rangeStep/5) * maxRangeBlocks */
     public int getFinalRangeBlocks() {
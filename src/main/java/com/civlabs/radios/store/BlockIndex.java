@@ -0,0 +1,123 @@
+package com.civlabs.radios.store;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Radio ids by block position: one open-addressed long→UUID table per world,
+ * keyed by the packed x/y/z. A lookup is one probe with no allocation or lock.
+ * Tables are copy-on-write: placing or breaking a radio rebuilds its world's
+ * table, which is rare next to right-clicks. Mutators are called from RadioStore's
+ * single write path only.
+ */
+final class BlockIndex {
+
+    private final Map<String, Table> worlds = new ConcurrentHashMap<>();
+
+    /** Same layout as Minecraft's BlockPos.asLong: 26 bits x, 26 bits z, 12 bits y. */
+    static long pack(int x, int y, int z) {
+        return ((long) (x & 0x3FFFFFF) << 38) | ((long) (z & 0x3FFFFFF) << 12) | (y & 0xFFF);
+    }
+
+    UUID get(String world, int x, int y, int z) {
+        Table t = worlds.get(world);
+        return t == null ? null : t.get(pack(x, y, z));
+    }
+
+    void put(String world, int x, int y, int z, UUID id) {
+        if (world == null) return;
+        Table t = worlds.get(world);
+        worlds.put(world, (t == null ? Table.EMPTY : t).with(pack(x, y, z), id));
+    }
+
+    /** Removes the entry at the position if it still belongs to id. */
+    void remove(String world, int x, int y, int z, UUID id) {
+        if (world == null) return;
+        Table t = worlds.get(world);
+        long key = pack(x, y, z);
+        if (t == null || !id.equals(t.get(key))) return; // someone else's block by now
+        Table next = t.without(key);
+        if (next.size == 0) worlds.remove(world);
+        else worlds.put(world, next);
+    }
+
+    /** Replaces the whole index in one pass, for loading. */
+    void rebuild(Collection<RadioRecord> radios) {
+        Map<String, List<RadioRecord>> byWorld = new HashMap<>();
+        for (RadioRecord r : radios) {
+            if (r.world() != null) byWorld.computeIfAbsent(r.world(), w -> new ArrayList<>()).add(r);
+        }
+        worlds.clear();
+        byWorld.forEach((world, list) -> {
+            Table t = new Table(list.size());
+            for (RadioRecord r : list) t.insert(pack(r.x(), r.y(), r.z()), r.id());
+            worlds.put(world, t);
+        });
+    }
+
+    // linear probing, a null value marks a free slot so key 0 needs no special case.
+    // never modified once published
+    private static final class Table {
+        static final Table EMPTY = new Table(0);
+
+        final long[] keys;
+        final UUID[] vals;
+        int size;
+
+        private Table(int entries) {
+            int cap = 4;
+            while (cap < entries * 2) cap <<= 1; // load factor <= 0.5
+            keys = new long[cap];
+            vals = new UUID[cap];
+        }
+
+        private static int slot(long key, int mask) {
+            key ^= key >>> 33;
+            key *= 0xff51afd7ed558ccdL;
+            key ^= key >>> 33;
+            return (int) key & mask;
+        }
+
+        UUID get(long key) {
+            int mask = keys.length - 1;
+            for (int i = slot(key, mask); vals[i] != null; i = (i + 1) & mask) {
+                if (keys[i] == key) return vals[i];
+            }
+            return null;
+        }
+
+        Table with(long key, UUID id) {
+            Table t = new Table(size + 1);
+            for (int i = 0; i < keys.length; i++) {
+                if (vals[i] != null && keys[i] != key) t.insert(keys[i], vals[i]);
+            }
+            t.insert(key, id);
+            return t;
+        }
+
+        Table without(long key) {
+            Table t = new Table(size - 1);
+            for (int i = 0; i < keys.length; i++) {
+                if (vals[i] != null && keys[i] != key) t.insert(keys[i], vals[i]);
+            }
+            return t;
+        }
+
+        // only while building a table that isn't published yet
+        private void insert(long key, UUID id) {
+            int mask = keys.length - 1;
+            int i = slot(key, mask);
+            for (; vals[i] != null; i = (i + 1) & mask) {
+                if (keys[i] == key) { vals[i] = id; return; } // two radios on one block: last one wins
+            }
+            keys[i] = key;
+            vals[i] = id;
+            size++;
+        }
+    }
+}
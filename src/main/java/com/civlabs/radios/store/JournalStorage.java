@@ -0,0 +1,284 @@
+package com.civlabs.radios.store;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+/**
+ * Binary snapshot plus append-only journal.
+ * A write appends only the fields that changed (fuel, frequencies, enabled/operator,
+ * antenna), so its size does not depend on how many radios exist. Once the journal
+ * outgrows the snapshot it is folded into a new snapshot and truncated. Startup reads
+ * the snapshot and replays the journal tail; a torn last record is cut off.
+ * Records hold absolute values, so replaying one twice is harmless.
+ */
+final class JournalStorage implements RadioStorage {
+
+    private static final int SNAPSHOT_MAGIC = 0x434C5253; // "CLRS"
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final long MIN_COMPACT_BYTES = 1L << 20;
+    private static final int MAX_RECORD_BYTES = 1 << 16;
+
+    private static final byte PUT = 1, FUEL = 2, FREQ = 3, STATE = 4, ANTENNA = 5, DELETE = 6;
+
+    private final Path snapshot;
+    private final Path journal;
+    private final Map<UUID, RadioRecord> state = new HashMap<>();
+    private FileChannel out;
+    private long journalBytes;
+    private long snapshotBytes;
+
+    // reused per write; only the writer thread touches these
+    private final ByteArrayOutputStream batch = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream one = new ByteArrayOutputStream();
+    private final DataOutputStream oneOut = new DataOutputStream(one);
+    private final CRC32 crc = new CRC32();
+
+    JournalStorage(Path dir, String baseName) {
+        this.snapshot = dir.resolve(baseName + ".snapshot");
+        this.journal = dir.resolve(baseName + ".journal");
+    }
+
+    @Override
+    public Collection<RadioRecord> load() throws IOException {
+        state.clear();
+        if (Files.exists(snapshot)) {
+            snapshotBytes = Files.size(snapshot);
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshot), 1 << 16))) {
+                if (in.readInt() != SNAPSHOT_MAGIC) throw new IOException("Not a radio snapshot: " + snapshot);
+                int version = in.readInt();
+                if (version != SNAPSHOT_VERSION) throw new IOException("Unsupported snapshot version " + version);
+                int n = in.readInt();
+                for (int i = 0; i < n; i++) {
+                    RadioRecord r = readRecord(in);
+                    state.put(r.id(), r);
+                }
+            }
+        }
+
+        long valid = Files.exists(journal) ? replay() : 0;
+        if (out != null) out.close(); // loaded again, e.g. after a radios.yml import check
+        out = FileChannel.open(journal, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        if (out.size() > valid) out.truncate(valid); // drop a record torn by a crash
+        out.position(valid);
+        journalBytes = valid;
+        return List.copyOf(state.values());
+    }
+
+    // applies every intact record; returns the offset just past the last one
+    private long replay() throws IOException {
+        ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(journal));
+        long valid = 0;
+        while (buf.remaining() >= 4) {
+            int len = buf.getInt();
+            if (len <= 0 || len > MAX_RECORD_BYTES || buf.remaining() < len + 4) break;
+            byte[] body = new byte[len];
+            buf.get(body);
+            int sum = buf.getInt();
+            crc.reset();
+            crc.update(body);
+            if ((int) crc.getValue() != sum) break;
+            apply(new DataInputStream(new ByteArrayInputStream(body)));
+            valid = buf.position();
+        }
+        return valid;
+    }
+
+    private void apply(DataInputStream in) throws IOException {
+        byte op = in.readByte();
+        if (op == PUT) {
+            RadioRecord r = readRecord(in);
+            state.put(r.id(), r);
+            return;
+        }
+        UUID id = readUuid(in);
+        RadioRecord r = state.get(id);
+        switch (op) {
+            case FUEL -> { int fuel = in.readInt(), total = in.readInt(); if (r != null) state.put(id, r.withFuel(fuel, total)); }
+            case FREQ -> { int tx = in.readInt(), rx = in.readInt(); if (r != null) state.put(id, r.withFrequencies(tx, rx)); }
+            case STATE -> { boolean en = in.readBoolean(); UUID op2 = readNullableUuid(in); if (r != null) state.put(id, r.withState(en, op2)); }
+            case ANTENNA -> { int a = in.readInt(), m = in.readInt(), s = in.readInt(); if (r != null) state.put(id, r.withAntenna(a, m, s)); }
+            case DELETE -> state.remove(id);
+            default -> throw new IOException("Unknown journal op " + op);
+        }
+    }
+
+    @Override
+    public void write(Collection<RadioRecord> changed, Collection<UUID> removed) throws IOException {
+        batch.reset();
+        for (RadioRecord r : changed) {
+            RadioRecord prev = state.get(r.id());
+            if (prev == null || !sameIdentity(prev, r)) {
+                append(PUT, r);
+                continue;
+            }
+            if (prev.fuel() != r.fuel() || prev.fuelTotal() != r.fuelTotal()) append(FUEL, r);
+            if (prev.tx() != r.tx() || prev.rx() != r.rx()) append(FREQ, r);
+            if (prev.enabled() != r.enabled() || !Objects.equals(prev.operator(), r.operator())) append(STATE, r);
+            if (prev.antenna() != r.antenna() || prev.maxRange() != r.maxRange() || prev.rangeStep() != r.rangeStep()) append(ANTENNA, r);
+        }
+        for (UUID id : removed) {
+            RadioRecord prev = state.get(id);
+            if (prev != null) append(DELETE, prev);
+        }
+        if (batch.size() == 0) return;
+
+        ByteBuffer buf = ByteBuffer.wrap(batch.toByteArray());
+        try {
+            while (buf.hasRemaining()) out.write(buf);
+            out.force(false);
+        } catch (IOException e) {
+            // cut off the partial batch so later appends don't land behind a torn record
+            try { out.truncate(journalBytes); out.position(journalBytes); } catch (IOException ignore) {}
+            throw e;
+        }
+        journalBytes += batch.size();
+
+        // only once the records are durable, so a failed write is diffed again next time
+        for (RadioRecord r : changed) state.put(r.id(), r);
+        for (UUID id : removed) state.remove(id);
+
+        if (journalBytes > Math.max(MIN_COMPACT_BYTES, snapshotBytes)) compact();
+    }
+
+    /** Writes the full state as a new snapshot and empties the journal. */
+    void compact() throws IOException {
+        List<RadioRecord> all = new ArrayList<>(state.values());
+        AtomicFiles.replace(snapshot, o -> {
+            o.writeInt(SNAPSHOT_MAGIC);
+            o.writeInt(SNAPSHOT_VERSION);
+            o.writeInt(all.size());
+            for (RadioRecord r : all) writeRecord(o, r);
+        });
+        snapshotBytes = Files.size(snapshot);
+        // a crash before this truncate only means the old records get replayed over the new snapshot
+        out.truncate(0);
+        out.position(0);
+        out.force(true);
+        journalBytes = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (out == null) return;
+        if (journalBytes > 0) compact(); // next startup then reads the snapshot only
+        out.close();
+        out = null;
+    }
+
+    @Override
+    public String name() { return "journal"; }
+
+    // position, world and owner never change in place; if they do, write the whole record
+    private static boolean sameIdentity(RadioRecord a, RadioRecord b) {
+        return a.x() == b.x() && a.y() == b.y() && a.z() == b.z()
+                && Objects.equals(a.world(), b.world())
+                && Objects.equals(a.dimension(), b.dimension())
+                && Objects.equals(a.owner(), b.owner());
+    }
+
+    // frame: [length][op + payload][crc32 of op + payload]
+    private void append(byte op, RadioRecord r) throws IOException {
+        one.reset();
+        oneOut.writeByte(op);
+        switch (op) {
+            case PUT -> writeRecord(oneOut, r);
+            case FUEL -> { writeUuid(oneOut, r.id()); oneOut.writeInt(r.fuel()); oneOut.writeInt(r.fuelTotal()); }
+            case FREQ -> { writeUuid(oneOut, r.id()); oneOut.writeInt(r.tx()); oneOut.writeInt(r.rx()); }
+            case STATE -> { writeUuid(oneOut, r.id()); oneOut.writeBoolean(r.enabled()); writeNullableUuid(oneOut, r.operator()); }
+            case ANTENNA -> { writeUuid(oneOut, r.id()); oneOut.writeInt(r.antenna()); oneOut.writeInt(r.maxRange()); oneOut.writeInt(r.rangeStep()); }
+            case DELETE -> writeUuid(oneOut, r.id());
+            default -> throw new IllegalArgumentException("op " + op);
+        }
+        oneOut.flush();
+        crc.reset();
+        crc.update(one.toByteArray(), 0, one.size());
+        DataOutputStream b = new DataOutputStream(batch);
+        b.writeInt(one.size());
+        one.writeTo(b);
+        b.writeInt((int) crc.getValue());
+        b.flush();
+    }
+
+    static void writeRecord(DataOutput o, RadioRecord r) throws IOException {
+        writeUuid(o, r.id());
+        writeNullableString(o, r.world());
+        o.writeInt(r.x());
+        o.writeInt(r.y());
+        o.writeInt(r.z());
+        writeNullableString(o, r.dimension());
+        writeNullableUuid(o, r.owner());
+        o.writeBoolean(r.enabled());
+        o.writeInt(r.tx());
+        o.writeInt(r.rx());
+        writeNullableUuid(o, r.operator());
+        o.writeInt(r.fuel());
+        o.writeInt(r.antenna());
+        o.writeInt(r.maxRange());
+        o.writeInt(r.rangeStep());
+        o.writeInt(r.fuelTotal());
+    }
+
+    static RadioRecord readRecord(DataInput in) throws IOException {
+        return new RadioRecord(
+                readUuid(in),
+                readNullableString(in),
+                in.readInt(), in.readInt(), in.readInt(),
+                readNullableString(in),
+                readNullableUuid(in),
+                in.readBoolean(),
+                in.readInt(),
+                in.readInt(),
+                readNullableUuid(in),
+                in.readInt(),
+                in.readInt(),
+                in.readInt(),
+                in.readInt(),
+                in.readInt());
+    }
+
+    private static void writeUuid(DataOutput o, UUID id) throws IOException {
+        o.writeLong(id.getMostSignificantBits());
+        o.writeLong(id.getLeastSignificantBits());
+    }
+
+    private static UUID readUuid(DataInput in) throws IOException {
+        return new UUID(in.readLong(), in.readLong());
+    }
+
+    private static void writeNullableUuid(DataOutput o, UUID id) throws IOException {
+        o.writeBoolean(id != null);
+        if (id != null) writeUuid(o, id);
+    }
+
+    private static UUID readNullableUuid(DataInput in) throws IOException {
+        return in.readBoolean() ? readUuid(in) : null;
+    }
+
+    private static void writeNullableString(DataOutput o, String s) throws IOException {
+        o.writeBoolean(s != null);
+        if (s != null) o.writeUTF(s);
+    }
+
+    private static String readNullableString(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
@@ -0,0 +1,103 @@
+package com.civlabs.radios.store;
+
+import com.civlabs.radios.model.Radio;
+
+import java.util.UUID;
+
+/**
+ * Immutable, versioned snapshot of a radio.
+ * RadioStore takes one on every save, so the writer thread and the topology never
+ * read a Radio bean mid-edit. version is the store's change counter at that save:
+ * a cache built from a snapshot is stale once the version moves.
+ * Backends don't persist it; loaded records start at 0 and the store renumbers them.
+ * The with* copies are for backends that replay partial updates (the journal).
+ * Fuel is the ledger checkpoint, not the clock-dependent remainder, so an idle
+ * burning radio doesn't look changed on every save.
+ */
+public record RadioRecord(
+        UUID id,
+        String world,
+        int x, int y, int z,
+        String dimension,
+        UUID owner,
+        boolean enabled,
+        int tx,
+        int rx,
+        UUID operator,
+        int fuel,
+        int antenna,
+        int maxRange,
+        int rangeStep,
+        int fuelTotal,
+        long version
+) {
+
+    /** Unversioned record, as the storage backends read it. */
+    public RadioRecord(UUID id, String world, int x, int y, int z, String dimension, UUID owner, boolean enabled,
+                       int tx, int rx, UUID operator, int fuel, int antenna, int maxRange, int rangeStep, int fuelTotal) {
+        this(id, world, x, y, z, dimension, owner, enabled, tx, rx, operator, fuel, antenna, maxRange, rangeStep, fuelTotal, 0L);
+    }
+
+    public static RadioRecord of(Radio r) {
+        return new RadioRecord(r.getId(), r.getWorld(), r.getX(), r.getY(), r.getZ(), r.getDimension(),
+                r.getOwner(), r.isEnabled(), r.getTransmitFrequency(), r.getListenFrequency(), r.getOperator(),
+                r.getCheckpointFuelSeconds(), r.getAntennaCount(), r.getMaxRangeBlocks(), r.getRangeStep(),
+                r.getTotalFuelAddedSeconds());
+    }
+
+    /** Final range in blocks, same as Radio.getFinalRangeBlocks. */
+    public int finalRange() {
+        return (int) Math.floor((rangeStep / 5.0) * maxRange);
+    }
+
+    /** True if o holds the same radio state, whatever the versions. */
+    public boolean sameState(RadioRecord o) {
+        return o != null && equals(o.withVersion(version));
+    }
+
+    public RadioRecord withVersion(long version) {
+        return new RadioRecord(id, world, x, y, z, dimension, owner, enabled, tx, rx, operator,
+                fuel, antenna, maxRange, rangeStep, fuelTotal, version);
+    }
+
+    public RadioRecord withFuel(int fuel, int fuelTotal) {
+        return new RadioRecord(id, world, x, y, z, dimension, owner, enabled, tx, rx, operator,
+                fuel, antenna, maxRange, rangeStep, fuelTotal, version);
+    }
+
+    public RadioRecord withFrequencies(int tx, int rx) {
+        return new RadioRecord(id, world, x, y, z, dimension, owner, enabled, tx, rx, operator,
+                fuel, antenna, maxRange, rangeStep, fuelTotal, version);
+    }
+
+    public RadioRecord withState(boolean enabled, UUID operator) {
+        return new RadioRecord(id, world, x, y, z, dimension, owner, enabled, tx, rx, operator,
+                fuel, antenna, maxRange, rangeStep, fuelTotal, version);
+    }
+
+    public RadioRecord withAntenna(int antenna, int maxRange, int rangeStep) {
+        return new RadioRecord(id, world, x, y, z, dimension, owner, enabled, tx, rx, operator,
+                fuel, antenna, maxRange, rangeStep, fuelTotal, version);
+    }
+
+    public Radio toRadio() {
+        Radio r = new Radio();
+        r.setId(id);
+        r.setWorld(world);
+        r.setX(x);
+        r.setY(y);
+        r.setZ(z);
+        r.setDimension(dimension);
+        r.setOwner(owner);
+        r.setEnabled(enabled);
+        r.setTransmitFrequency(tx);
+        r.setListenFrequency(rx);
+        r.setOperator(operator);
+        r.setFuelSeconds(fuel);
+        r.setAntennaCount(antenna);
+        r.setMaxRangeBlocks(maxRange);
+        r.setRangeStep(rangeStep);
+        r.setTotalFuelAddedSeconds(fuelTotal);
+        return r;
+    }
+}
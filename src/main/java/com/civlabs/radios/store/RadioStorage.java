@@ -0,0 +1,43 @@
+package com.civlabs.radios.store;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Persistence backend behind RadioStore, picked by storage.type in config.yml.
+ * Everything but load() runs on the store's writer thread.
+ */
+public interface RadioStorage {
+
+    /** Backend names accepted by storage.type and /radio storage migrate. */
+    String[] TYPES = {"yaml", "journal", "sqlite"};
+
+    /** Reads every persisted radio. Called once, before any write. */
+    Collection<RadioRecord> load() throws IOException;
+
+    /** Persists the given changed radios and removals. */
+    void write(Collection<RadioRecord> changed, Collection<UUID> removed) throws IOException;
+
+    default void close() throws IOException {}
+
+    /** Short name for logs. */
+    String name();
+
+    /**
+     * Backend of the given type keeping its files in dataFolder.
+     * sqlUrl overrides the JDBC url of the sqlite type (e.g. an H2 url); blank means dataFolder/radios.db.
+     */
+    static RadioStorage create(String type, Path dataFolder, String sqlUrl) {
+        return switch (type.toLowerCase(Locale.ROOT)) {
+            case "yaml" -> new YamlStorage(dataFolder.resolve("radios.yml"));
+            case "journal" -> new JournalStorage(dataFolder, "radios");
+            case "sqlite" -> new SqlStorage(sqlUrl == null || sqlUrl.isBlank()
+                    ? "jdbc:sqlite:" + dataFolder.resolve("radios.db").toAbsolutePath()
+                    : sqlUrl);
+            default -> throw new IllegalArgumentException("Unknown storage type '" + type + "'");
+        };
+    }
+}
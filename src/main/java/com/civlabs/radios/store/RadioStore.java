@@ -2,111 +2,275 @@ package com.civlabs.radios.store;
 
 import com.civlabs.radios.model.Radio;
 import org.bukkit.Location;
-import org.bukkit.configuration.file.YamlConfiguration;
 
-import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
 
+/**
+ * In-memory radio registry with write-behind persistence.
+ * Main-thread code edits the mutable Radio beans and calls save(); each save
+ * publishes an immutable, versioned RadioRecord snapshot. Only the read side is
+ * copy-on-write: the background writer, migration and the voice topology read
+ * snapshots and never see a half-applied edit, while edits still go through the beans.
+ * Reads never lock: both maps are ConcurrentHashMaps and getAll is a live
+ * read-only view. save/delete go through one mutation lock so the snapshots and
+ * block index stay in step; the topology follows within a tick. A background writer persists the dirty
+ * snapshots every flush interval and on close.
+ */
 public class RadioStore {
 
-    private final File file;
-    private final Map<UUID, Radio> radios = new HashMap<>();
+    private final RadioStorage engine;
+    private final Map<UUID, Radio> radios = new ConcurrentHashMap<>();
+    private final Collection<Radio> view = Collections.unmodifiableCollection(radios.values());
+    private final Map<UUID, RadioRecord> snapshots = new ConcurrentHashMap<>();
+    private final BlockIndex blocks = new BlockIndex();
+    // what the voice thread reads; replaced as a whole, at most once per REBUILD_DELAY_MILLIS
+    private volatile RadioTopology topology = RadioTopology.EMPTY;
+    private static final long REBUILD_DELAY_MILLIS = 50; // one tick
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+    // bumped by every routing change; a topology's version is the value it was built from
+    private volatile long routeVersion;
+    private final ScheduledExecutorService rebuilder;
 
-    public RadioStore(Path path) {
-        this.file = path.toFile();
+    private final Object mutation = new Object();
+    private volatile Consumer<Radio> changeListener = r -> {};
+    private long version;                                    // snapshot counter, guarded by mutation
+    private final Set<UUID> dirty = ConcurrentHashMap.newKeySet();
+    private final Object writeLock = new Object();
+    private final ScheduledExecutorService writer;
+
+    public RadioStore(RadioStorage engine, long flushMillis) {
+        this.engine = engine;
         load();
+        this.writer = daemon("CivLabsRadios-Store");
+        this.rebuilder = daemon("CivLabsRadios-Topology");
+        long every = Math.max(100L, flushMillis);
+        writer.scheduleWithFixedDelay(this::flushQuietly, every, every, TimeUnit.MILLISECONDS);
+    }
+
+    public void delete(UUID id) {
+        synchronized (mutation) {
+            radios.remove(id);
+            RadioRecord old = snapshots.remove(id);
+            if (old != null) blocks.remove(old.world(), old.x(), old.y(), old.z(), id);
+            version++;
+            dirty.add(id); // after the map change, see flush()
+            publish();
+        }
+    }
+
+    /**
+     * Publishes r's current state as a new snapshot, then tells the change listener.
+     * A save that changed nothing is a no-op.
+     */
+    public void save(Radio r) {
+        if (publishSnapshot(r)) changeListener.accept(r);
     }
 
-    public synchronized void delete(UUID id) {
-        radios.remove(id);
-        saveAll();
+    /** Called on the saving thread, outside the store's lock, after each save that changed a radio. */
+    public void onChange(Consumer<Radio> listener) {
+        this.changeListener = listener;
     }
 
-    public synchronized void save(Radio r) {
-        radios.put(r.getId(), r);
-        saveAll();
+    private boolean publishSnapshot(Radio r) {
+        synchronized (mutation) {
+            radios.put(r.getId(), r);
+            RadioRecord old = snapshots.get(r.getId());
+            RadioRecord snap = RadioRecord.of(r);
+            if (snap.sameState(old)) return false;
+            snap = snap.withVersion(++version);
+            snapshots.put(snap.id(), snap);
+            if (old == null || !samePlace(old, snap)) {
+                if (old != null) blocks.remove(old.world(), old.x(), old.y(), old.z(), old.id());
+                blocks.put(snap.world(), snap.x(), snap.y(), snap.z(), snap.id());
+            }
+            dirty.add(snap.id());
+            // fuel and the like don't route; only routing changes need a new topology.
+            // compare with the previous snapshot, not the published topology: that may be stale
+            // while a rebuild is running, and an edit undone mid-build would never get its own
+            if (old == null || !RadioTopology.Node.of(snap).sameRoute(RadioTopology.Node.of(old))) publish();
+            return true;
+        }
     }
-    
-    public synchronized Radio get(UUID id) { return radios.get(id); }
 
-    public synchronized List<Radio> getAll() {
-        return new ArrayList<>(radios.values());
+    /** The live Radio bean. Main thread only. */
+    public Radio get(UUID id) { return radios.get(id); }
+
+    /**
+     * Every radio bean, as a live read-only view. Iteration is weakly consistent: it never
+     * throws on concurrent saves and may or may not see them. Copy it if you need a stable list.
+     */
+    public Collection<Radio> getAll() {
+        return view;
     }
-    // find the first radio at Location loc
-    public synchronized Optional<Radio> byLocation(Location loc) {
-        return radios.values().stream().filter(r ->
-                r.getWorld().equals(loc.getWorld().getName()) &&
-                        r.getX() == loc.getBlockX() && r.getY() == loc.getBlockY() && r.getZ() == loc.getBlockZ()
-        ).findFirst();
+
+    // the radio at Location loc; one probe into the block index, one into the map
+    public Optional<Radio> byLocation(Location loc) {
+        if (loc.getWorld() == null) return Optional.empty();
+        UUID id = blocks.get(loc.getWorld().getName(), loc.getBlockX(), loc.getBlockY(), loc.getBlockZ());
+        return id == null ? Optional.empty() : Optional.ofNullable(radios.get(id));
     }
     // find the first radio operated by op
-    public synchronized Optional<Radio> byOperator(UUID op) {
-        return radios.values().stream().filter(r -> op.equals(r.getOperator())).findFirst();
+    public Optional<Radio> byOperator(UUID op) {
+        for (RadioRecord s : snapshots.values()) {
+            if (op.equals(s.operator())) return Optional.ofNullable(radios.get(s.id()));
+        }
+        return Optional.empty();
     }
 
-    public synchronized List<Radio> listenersOn(int freq) {
-        return radios.values().stream()
-                .filter(r -> r.getListenFrequency() == freq)
-                .collect(Collectors.toList());
+    private static boolean samePlace(RadioRecord a, RadioRecord b) {
+        return a.x() == b.x() && a.y() == b.y() && a.z() == b.z() && Objects.equals(a.world(), b.world());
     }
 
-    private void load() {
-        radios.clear();
-        if (!file.exists()) return;
-        YamlConfiguration cfg = YamlConfiguration.loadConfiguration(file);
-        for (String key : cfg.getKeys(false)) {
-            UUID id = UUID.fromString(key);
-            Radio r = new Radio();
-            r.setId(id);
-            r.setWorld(cfg.getString(key + ".world"));
-            r.setX(cfg.getInt(key + ".x"));
-            r.setY(cfg.getInt(key + ".y"));
-            r.setZ(cfg.getInt(key + ".z"));
-            r.setDimension(cfg.getString(key + ".dimension", "NORMAL"));
-            String owner = cfg.getString(key + ".owner");
-            r.setOwner(owner == null ? null : UUID.fromString(owner));
-            r.setEnabled(cfg.getBoolean(key + ".enabled"));
-            r.setTransmitFrequency(cfg.getInt(key + ".tx"));
-            r.setListenFrequency(cfg.getInt(key + ".rx"));
-            String op = cfg.getString(key + ".operator");
-            r.setOperator(op == null ? null : UUID.fromString(op));
-            r.setFuelSeconds(cfg.getInt(key + ".fuel", 0));
-
-            // NEW persisted fields
-            r.setAntennaCount(cfg.getInt(key + ".antenna", 0));
-            r.setMaxRangeBlocks(cfg.getInt(key + ".maxRange", 0));
-            r.setRangeStep(cfg.getInt(key + ".rangeStep", 5));
-            r.setTotalFuelAddedSeconds(cfg.getInt(key + ".fuelTotal", 0));
-
-            radios.put(id, r);
+    /** Current routing snapshot. Lock-free; safe to call from any thread. Trails a save by up to a tick. */
+    public RadioTopology topology() {
+        return topology;
+    }
+
+    /**
+     * Number of routing changes so far. Once topology().version() reaches the value read
+     * after a save or delete, the topology includes that change; it always gets there.
+     */
+    public long routeVersion() {
+        return routeVersion;
+    }
+
+    /**
+     * Asks for a new topology after a routing change. The O(N) rebuild runs on its own
+     * thread, off the main thread and outside the mutation lock, and every change within
+     * one tick shares it: fifty GUI clicks in a tick cost one build, not fifty.
+     */
+    private void publish() {
+        routeVersion++; // under the mutation lock (or still loading)
+        if (rebuilder == null) { // still loading
+            rebuildTopology();
+            return;
+        }
+        if (rebuildScheduled.compareAndSet(false, true)) {
+            rebuilder.schedule(this::rebuildTopology, REBUILD_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // clear the flag before reading: a change racing the build schedules the next one, and
+    // reading routeVersion before the snapshots keeps the version from claiming a change it lacks
+    private void rebuildTopology() {
+        rebuildScheduled.set(false);
+        try {
+            long v = routeVersion;
+            topology = RadioTopology.build(snapshots.values(), v);
+        } catch (Throwable e) {
+            e.printStackTrace();
         }
     }
 
-    private void saveAll() {
-        YamlConfiguration cfg = new YamlConfiguration();
-        for (Radio r : radios.values()) {
-            String k = r.getId().toString();
-            cfg.set(k + ".world", r.getWorld());
-            cfg.set(k + ".x", r.getX());
-            cfg.set(k + ".y", r.getY());
-            cfg.set(k + ".z", r.getZ());
-            cfg.set(k + ".dimension", r.getDimension());
-            cfg.set(k + ".owner", r.getOwner() == null ? null : r.getOwner().toString());
-            cfg.set(k + ".enabled", r.isEnabled());
-            cfg.set(k + ".tx", r.getTransmitFrequency());
-            cfg.set(k + ".rx", r.getListenFrequency());
-            cfg.set(k + ".operator", r.getOperator() == null ? null : r.getOperator().toString());
-            cfg.set(k + ".fuel", r.getFuelSeconds());
-
-            // NEW persisted fields
-            cfg.set(k + ".antenna", r.getAntennaCount());
-            cfg.set(k + ".maxRange", r.getMaxRangeBlocks());
-            cfg.set(k + ".rangeStep", r.getRangeStep());
-            cfg.set(k + ".fuelTotal", r.getTotalFuelAddedSeconds());
+    private static ScheduledExecutorService daemon(String name) {
+        return Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, name);
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Opens the store configured by storage.type in dataFolder (see RadioStorage.create).
+     * An empty journal or sqlite store imports radios.yml once and renames it to radios.yml.imported.
+     */
+    public static RadioStore open(Path dataFolder, String type, long flushMillis, String sqlUrl, Logger log) throws IOException {
+        RadioStorage engine;
+        try {
+            engine = RadioStorage.create(type, dataFolder, sqlUrl);
+        } catch (IllegalArgumentException e) {
+            log.warning("Unknown storage.type '" + type + "', using yaml.");
+            engine = RadioStorage.create("yaml", dataFolder, sqlUrl);
+        }
+        Path yaml = dataFolder.resolve("radios.yml");
+        if (!(engine instanceof YamlStorage) && Files.exists(yaml) && engine.load().isEmpty()) {
+            int n = StorageMigrator.migrate(new YamlStorage(yaml), engine, false).copied();
+            Files.move(yaml, dataFolder.resolve("radios.yml.imported"), StandardCopyOption.REPLACE_EXISTING);
+            log.info("Imported " + n + " radios from radios.yml into the " + engine.name() + " store.");
+        }
+        RadioStore store = new RadioStore(engine, flushMillis);
+        log.info("Radio storage: " + engine.name() + " (" + store.radios.size() + " radios)");
+        return store;
+    }
+
+    /** Name of the active storage backend. */
+    public String storageName() {
+        return engine.name();
+    }
+
+    /** Copy of every radio as it would be persisted, for migrating away from a live store. */
+    public List<RadioRecord> snapshotRecords() {
+        return new ArrayList<>(snapshots.values());
+    }
+
+    /** Writes pending changes now. Runs on the writer thread, and from close(). */
+    public void flush() throws IOException {
+        synchronized (writeLock) {
+            if (dirty.isEmpty()) return;
+            List<RadioRecord> changed = new ArrayList<>();
+            List<UUID> removed = new ArrayList<>();
+            // take the id out before reading the radio: a save racing with this re-marks it, so
+            // at worst the radio is written twice, never missed
+            for (Iterator<UUID> it = dirty.iterator(); it.hasNext(); ) {
+                UUID id = it.next();
+                it.remove();
+                RadioRecord r = snapshots.get(id);
+                if (r == null) removed.add(id);
+                else changed.add(r);
+            }
+            try {
+                engine.write(changed, removed);
+            } catch (IOException | RuntimeException e) {
+                // retry them with the next flush
+                dirty.addAll(removed);
+                for (RadioRecord rec : changed) dirty.add(rec.id());
+                throw e;
+            }
+        }
+    }
+
+    private void flushQuietly() {
+        try { flush(); } catch (Throwable e) { e.printStackTrace(); }
+    }
+
+    /** Stops the writer and flushes whatever is still pending. Call on disable, after the last save. */
+    public void close() {
+        rebuilder.shutdownNow();
+        writer.shutdown();
+        try {
+            writer.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushQuietly();
+        try { engine.close(); } catch (IOException e) { e.printStackTrace(); }
+    }
+
+    private void load() {
+        radios.clear();
+        snapshots.clear();
+        try {
+            for (RadioRecord rec : engine.load()) {
+                rec = rec.withVersion(++version);
+                snapshots.put(rec.id(), rec);
+                radios.put(rec.id(), rec.toRadio());
+            }
+        } catch (IOException e) {
+            // refuse to start on top of unreadable data rather than overwrite it with an empty store
+            throw new IllegalStateException("Could not load radios from " + engine.name() + " storage", e);
         }
-        try { cfg.save(file); } catch (IOException e) { e.printStackTrace(); }
+        blocks.rebuild(snapshots.values());
+        publish();
     }
 }
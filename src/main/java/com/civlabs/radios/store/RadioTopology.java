@@ -0,0 +1,190 @@
+package com.civlabs.radios.store;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Immutable view of the radios as the voice thread needs them.
+ * RadioStore rebuilds it on every change and publishes it with a single volatile
+ * write, so readers never lock, copy, or see a half-applied edit.
+ * Receivers are also bucketed per world and frequency into a uniform grid, so a
+ * transmission only visits the cells its range can reach.
+ */
+public final class RadioTopology {
+
+    public static final RadioTopology EMPTY = new RadioTopology(Map.of(), Map.of(), emptyIndex(1), Map.of(), 0);
+
+    // 256-block cells: a default-range transmitter touches a handful of cells
+    private static final int CELL_SHIFT = 8;
+
+    /**
+     * Frozen copy of the fields of one radio that audio routing reads.
+     * version is that of the snapshot it was taken from; per-radio caches compare it.
+     */
+    public record Node(UUID id, String world, int x, int y, int z, boolean enabled, UUID operator,
+                       int txFreq, int rxFreq, int antennaCount, int rangeBlocks, long version) {
+
+        static Node of(RadioRecord r) {
+            return new Node(r.id(), r.world(), r.x(), r.y(), r.z(), r.enabled(), r.operator(),
+                    r.tx(), r.rx(), r.antenna(), r.finalRange(), r.version());
+        }
+
+        /** True if routing would treat o exactly like this node. */
+        boolean sameRoute(Node o) {
+            return o != null && equals(new Node(o.id, o.world, o.x, o.y, o.z, o.enabled, o.operator,
+                    o.txFreq, o.rxFreq, o.antennaCount, o.rangeBlocks, version));
+        }
+
+        public boolean sameWorld(Node o) {
+            return world != null && world.equals(o.world);
+        }
+
+        public double distanceTo(Node o) {
+            return Math.sqrt(distanceSq(o));
+        }
+
+        public double distanceSq(Node o) {
+            double dx = x - o.x, dy = y - o.y, dz = z - o.z;
+            return dx * dx + dy * dy + dz * dz;
+        }
+    }
+
+    private record Channel(String world, int freq) {}
+
+    // receivers of one world and frequency; cells sorted by key so a probe is a binary search
+    // over primitives instead of a boxed-Long map lookup
+    private record Grid(Node[] all, long[] cellKeys, Node[][] cells) {
+        Node[] cell(long key) {
+            int i = Arrays.binarySearch(cellKeys, key);
+            return i < 0 ? null : cells[i];
+        }
+    }
+
+    private final Map<UUID, Node> nodes;        // radio id -> node, every radio
+    private final Map<UUID, Node> transmitters; // operator -> enabled transmitter
+    private final List<Node>[] listeners;       // rx frequency -> receivers with antennas
+    private final Map<String, Grid[]> grids;   // world -> rx frequency -> grid (or null)
+    private final long version;
+
+    private RadioTopology(Map<UUID, Node> nodes, Map<UUID, Node> transmitters, List<Node>[] listeners,
+                          Map<String, Grid[]> grids, long version) {
+        this.nodes = nodes;
+        this.transmitters = transmitters;
+        this.listeners = listeners;
+        this.grids = grids;
+        this.version = version;
+    }
+
+    public static RadioTopology build(Collection<RadioRecord> radios, long version) {
+        Map<UUID, Node> all = new HashMap<>();
+        Map<UUID, Node> tx = new HashMap<>();
+        Map<Integer, List<Node>> rx = new HashMap<>();
+        Map<Channel, List<Node>> byChannel = new HashMap<>();
+        int maxFreq = 0;
+        for (RadioRecord r : radios) {
+            Node n = Node.of(r);
+            all.put(n.id(), n);
+            if (n.enabled() && n.operator() != null && n.txFreq() > 0) tx.put(n.operator(), n);
+            // receivers without an antenna stack can't hear anything
+            if (n.rxFreq() > 0 && n.antennaCount() > 0) {
+                rx.computeIfAbsent(n.rxFreq(), k -> new ArrayList<>()).add(n);
+                maxFreq = Math.max(maxFreq, n.rxFreq());
+                if (n.world() != null) byChannel.computeIfAbsent(new Channel(n.world(), n.rxFreq()), k -> new ArrayList<>()).add(n);
+            }
+        }
+        List<Node>[] idx = emptyIndex(maxFreq + 1);
+        for (Map.Entry<Integer, List<Node>> e : rx.entrySet()) idx[e.getKey()] = List.copyOf(e.getValue());
+
+        Map<String, Grid[]> grids = new HashMap<>();
+        for (Map.Entry<Channel, List<Node>> e : byChannel.entrySet()) {
+            Map<Long, List<Node>> cells = new TreeMap<>();
+            for (Node n : e.getValue()) {
+                cells.computeIfAbsent(cellKey(n.x() >> CELL_SHIFT, n.z() >> CELL_SHIFT), k -> new ArrayList<>()).add(n);
+            }
+            long[] keys = new long[cells.size()];
+            Node[][] frozen = new Node[cells.size()][];
+            int i = 0;
+            for (Map.Entry<Long, List<Node>> c : cells.entrySet()) {
+                keys[i] = c.getKey();
+                frozen[i++] = c.getValue().toArray(new Node[0]);
+            }
+            Channel ch = e.getKey();
+            grids.computeIfAbsent(ch.world(), w -> new Grid[idx.length])[ch.freq()] =
+                    new Grid(e.getValue().toArray(new Node[0]), keys, frozen);
+        }
+        return new RadioTopology(Map.copyOf(all), Map.copyOf(tx), idx, Map.copyOf(grids), version);
+    }
+
+    /** Node of the given radio, or null. */
+    public Node node(UUID radioId) {
+        return nodes.get(radioId);
+    }
+
+    /** Enabled transmitter operated by op, or null. */
+    public Node transmitterOf(UUID op) {
+        return transmitters.get(op);
+    }
+
+    /** Receivers with antennas listening on freq. Immutable; callers must not copy it. */
+    public List<Node> listenersOn(int freq) {
+        if (freq < 1 || freq >= listeners.length) return List.of();
+        return listeners[freq];
+    }
+
+    /**
+     * Replaces out's contents with the receivers on tx's frequency in tx's world within
+     * its final range. Visits only grid cells the range reaches, or every receiver of that
+     * world and frequency when that is fewer. Allocates nothing, so callers on the voice
+     * path pass a reused list.
+     */
+    public List<Node> listenersInRange(Node tx, List<Node> out) {
+        out.clear();
+        int range = tx.rangeBlocks();
+        if (range <= 0 || tx.world() == null) return out;
+        Grid[] byFreq = grids.get(tx.world());
+        int freq = tx.txFreq();
+        Grid g = byFreq == null || freq < 1 || freq >= byFreq.length ? null : byFreq[freq];
+        if (g == null) return out;
+
+        double r2 = (double) range * range;
+        int minX = (tx.x() - range) >> CELL_SHIFT, maxX = (tx.x() + range) >> CELL_SHIFT;
+        int minZ = (tx.z() - range) >> CELL_SHIFT, maxZ = (tx.z() + range) >> CELL_SHIFT;
+        long cellCount = (maxX - minX + 1L) * (maxZ - minZ + 1L);
+
+        if (cellCount >= g.all().length) {
+            for (Node n : g.all()) if (n.distanceSq(tx) <= r2) out.add(n);
+            return out;
+        }
+        for (int cx = minX; cx <= maxX; cx++) {
+            for (int cz = minZ; cz <= maxZ; cz++) {
+                Node[] cell = g.cell(cellKey(cx, cz));
+                if (cell == null) continue;
+                for (Node n : cell) if (n.distanceSq(tx) <= r2) out.add(n);
+            }
+        }
+        return out;
+    }
+
+    public int transmitterCount() { return transmitters.size(); }
+    public int radioCount() { return nodes.size(); }
+
+    /** RadioStore.routeVersion() this was built from; never goes backwards. */
+    public long version() { return version; }
+
+    private static long cellKey(int cx, int cz) {
+        return ((long) cx << 32) | (cz & 0xffffffffL);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Node>[] emptyIndex(int size) {
+        List<Node>[] idx = (List<Node>[]) new List[size];
+        Arrays.fill(idx, List.of());
+        return idx;
+    }
+}
@@ -0,0 +1,147 @@
+package com.civlabs.radios.store;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Radios in one table of an embedded SQL database, written with prepared,
+ * batched upserts in one transaction per flush. SQLite by default (the driver
+ * ships with the server); an H2 url works too if its driver is on the classpath.
+ */
+final class SqlStorage implements RadioStorage {
+
+    private static final String CREATE = "CREATE TABLE IF NOT EXISTS radios ("
+            + "id CHAR(36) PRIMARY KEY, world VARCHAR(255), x INT, y INT, z INT, dimension VARCHAR(32), "
+            + "owner CHAR(36), enabled BOOLEAN, tx INT, rx INT, operator CHAR(36), fuel INT, "
+            + "antenna INT, max_range INT, range_step INT, fuel_total INT)";
+    private static final String COLUMNS = "id, world, x, y, z, dimension, owner, enabled, tx, rx, operator, "
+            + "fuel, antenna, max_range, range_step, fuel_total";
+    private static final String VALUES = "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final String url;
+    private Connection conn;
+
+    SqlStorage(String url) {
+        this.url = url;
+    }
+
+    @Override
+    public Collection<RadioRecord> load() throws IOException {
+        try {
+            if (conn == null) {
+                conn = DriverManager.getConnection(url);
+                try (Statement st = conn.createStatement()) {
+                    st.executeUpdate(CREATE);
+                }
+                conn.setAutoCommit(false);
+                conn.commit();
+            }
+            List<RadioRecord> out = new ArrayList<>();
+            try (Statement st = conn.createStatement();
+                 ResultSet rs = st.executeQuery("SELECT " + COLUMNS + " FROM radios")) {
+                while (rs.next()) {
+                    out.add(new RadioRecord(
+                            UUID.fromString(rs.getString(1)),
+                            rs.getString(2),
+                            rs.getInt(3), rs.getInt(4), rs.getInt(5),
+                            rs.getString(6),
+                            uuidOrNull(rs.getString(7)),
+                            rs.getBoolean(8),
+                            rs.getInt(9),
+                            rs.getInt(10),
+                            uuidOrNull(rs.getString(11)),
+                            rs.getInt(12),
+                            rs.getInt(13),
+                            rs.getInt(14),
+                            rs.getInt(15),
+                            rs.getInt(16)));
+                }
+            }
+            conn.commit();
+            return out;
+        } catch (SQLException e) {
+            throw new IOException("Could not load radios from " + url, e);
+        }
+    }
+
+    @Override
+    public void write(Collection<RadioRecord> changed, Collection<UUID> removed) throws IOException {
+        try (PreparedStatement up = conn.prepareStatement(upsertSql());
+             PreparedStatement del = conn.prepareStatement("DELETE FROM radios WHERE id = ?")) {
+            for (RadioRecord r : changed) {
+                up.setString(1, r.id().toString());
+                up.setString(2, r.world());
+                up.setInt(3, r.x());
+                up.setInt(4, r.y());
+                up.setInt(5, r.z());
+                up.setString(6, r.dimension());
+                setUuid(up, 7, r.owner());
+                up.setBoolean(8, r.enabled());
+                up.setInt(9, r.tx());
+                up.setInt(10, r.rx());
+                setUuid(up, 11, r.operator());
+                up.setInt(12, r.fuel());
+                up.setInt(13, r.antenna());
+                up.setInt(14, r.maxRange());
+                up.setInt(15, r.rangeStep());
+                up.setInt(16, r.fuelTotal());
+                up.addBatch();
+            }
+            for (UUID id : removed) {
+                del.setString(1, id.toString());
+                del.addBatch();
+            }
+            if (!changed.isEmpty()) up.executeBatch();
+            if (!removed.isEmpty()) del.executeBatch();
+            conn.commit();
+        } catch (SQLException e) {
+            try { conn.rollback(); } catch (SQLException ignore) {}
+            throw new IOException("Could not write radios to " + url, e);
+        }
+    }
+
+    // H2 has MERGE ... KEY; SQLite (3.24+) and most others take ON CONFLICT
+    private String upsertSql() {
+        if (url.startsWith("jdbc:h2:")) return "MERGE INTO radios (" + COLUMNS + ") KEY (id) " + VALUES;
+        return "INSERT INTO radios (" + COLUMNS + ") " + VALUES + " ON CONFLICT(id) DO UPDATE SET "
+                + "world = excluded.world, x = excluded.x, y = excluded.y, z = excluded.z, "
+                + "dimension = excluded.dimension, owner = excluded.owner, enabled = excluded.enabled, "
+                + "tx = excluded.tx, rx = excluded.rx, operator = excluded.operator, fuel = excluded.fuel, "
+                + "antenna = excluded.antenna, max_range = excluded.max_range, "
+                + "range_step = excluded.range_step, fuel_total = excluded.fuel_total";
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (conn == null) return;
+        try {
+            conn.close();
+        } catch (SQLException e) {
+            throw new IOException(e);
+        } finally {
+            conn = null;
+        }
+    }
+
+    @Override
+    public String name() { return "sqlite"; }
+
+    private static void setUuid(PreparedStatement ps, int i, UUID id) throws SQLException {
+        if (id == null) ps.setNull(i, Types.CHAR);
+        else ps.setString(i, id.toString());
+    }
+
+    private static UUID uuidOrNull(String s) {
+        return s == null ? null : UUID.fromString(s);
+    }
+}
@@ -0,0 +1,48 @@
+package com.civlabs.radios.store;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * One-shot copy of every radio from one storage backend to another.
+ * Radios the target has but the source doesn't are kept unless replace is asked for,
+ * and an empty source is refused outright when the target has radios to lose.
+ */
+public final class StorageMigrator {
+
+    /** copied radios written to the target; stale = target radios missing from the source, dropped only if replaced */
+    public record Result(int copied, int stale, boolean replaced) {}
+
+    private StorageMigrator() {}
+
+    /** Reads from and writes everything into to, then closes both. */
+    public static Result migrate(RadioStorage from, RadioStorage to, boolean replace) throws IOException {
+        Collection<RadioRecord> records;
+        try {
+            records = from.load();
+        } finally {
+            from.close();
+        }
+        return migrate(records, to, replace);
+    }
+
+    /** Writes records into to, also deleting radios only to has if replace is set, then closes it. */
+    public static Result migrate(Collection<RadioRecord> records, RadioStorage to, boolean replace) throws IOException {
+        try {
+            Set<UUID> stale = new HashSet<>();
+            for (RadioRecord r : to.load()) stale.add(r.id());
+            // a missing or renamed source reads as empty; never let that wipe or "migrate" nothing over the target
+            if (records.isEmpty() && !stale.isEmpty()) {
+                throw new IOException("Source has no radios; refusing to migrate over " + stale.size() + " radios in " + to.name());
+            }
+            for (RadioRecord r : records) stale.remove(r.id());
+            to.write(records, replace ? stale : Set.of());
+            return new Result(records.size(), stale.size(), replace);
+        } finally {
+            to.close();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.civlabs.radios.store;
+
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/** The original radios.yml format. Every write rewrites the whole file. */
+final class YamlStorage implements RadioStorage {
+
+    private final Path file;
+    private final Map<UUID, RadioRecord> persisted = new HashMap<>();
+
+    YamlStorage(Path file) {
+        this.file = file;
+    }
+
+    @Override
+    public Collection<RadioRecord> load() {
+        persisted.clear();
+        if (!Files.exists(file)) return List.of();
+        YamlConfiguration cfg = YamlConfiguration.loadConfiguration(file.toFile());
+        for (String key : cfg.getKeys(false)) {
+            UUID id = UUID.fromString(key);
+            String owner = cfg.getString(key + ".owner");
+            String op = cfg.getString(key + ".operator");
+            persisted.put(id, new RadioRecord(
+                    id,
+                    cfg.getString(key + ".world"),
+                    cfg.getInt(key + ".x"),
+                    cfg.getInt(key + ".y"),
+                    cfg.getInt(key + ".z"),
+                    cfg.getString(key + ".dimension", "NORMAL"),
+                    owner == null ? null : UUID.fromString(owner),
+                    cfg.getBoolean(key + ".enabled"),
+                    cfg.getInt(key + ".tx"),
+                    cfg.getInt(key + ".rx"),
+                    op == null ? null : UUID.fromString(op),
+                    cfg.getInt(key + ".fuel", 0),
+                    // NEW persisted fields
+                    cfg.getInt(key + ".antenna", 0),
+                    cfg.getInt(key + ".maxRange", 0),
+                    cfg.getInt(key + ".rangeStep", 5),
+                    cfg.getInt(key + ".fuelTotal", 0)));
+        }
+        return List.copyOf(persisted.values());
+    }
+
+    @Override
+    public void write(Collection<RadioRecord> changed, Collection<UUID> removed) throws IOException {
+        for (UUID id : removed) persisted.remove(id);
+        for (RadioRecord rec : changed) persisted.put(rec.id(), rec);
+
+        YamlConfiguration cfg = new YamlConfiguration();
+        for (RadioRecord r : persisted.values()) {
+            String k = r.id().toString();
+            cfg.set(k + ".world", r.world());
+            cfg.set(k + ".x", r.x());
+            cfg.set(k + ".y", r.y());
+            cfg.set(k + ".z", r.z());
+            cfg.set(k + ".dimension", r.dimension());
+            cfg.set(k + ".owner", r.owner() == null ? null : r.owner().toString());
+            cfg.set(k + ".enabled", r.enabled());
+            cfg.set(k + ".tx", r.tx());
+            cfg.set(k + ".rx", r.rx());
+            cfg.set(k + ".operator", r.operator() == null ? null : r.operator().toString());
+            cfg.set(k + ".fuel", r.fuel());
+
+            // NEW persisted fields
+            cfg.set(k + ".antenna", r.antenna());
+            cfg.set(k + ".maxRange", r.maxRange());
+            cfg.set(k + ".rangeStep", r.rangeStep());
+            cfg.set(k + ".fuelTotal", r.fuelTotal());
+        }
+        byte[] data = cfg.saveToString().getBytes(StandardCharsets.UTF_8);
+        AtomicFiles.replace(file, out -> out.write(data));
+    }
+
+    @Override
+    public String name() { return "yaml"; }
+}
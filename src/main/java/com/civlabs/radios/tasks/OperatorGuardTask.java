@@ -4,26 +4,43 @@ import com.civlabs.radios.CivLabsRadiosPlugin;
 import com.civlabs.radios.model.DisableReason;
 import com.civlabs.radios.model.Radio;
 import com.civlabs.radios.store.RadioStore;
-import com.civlabs.radios.util.RadioMath;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.bukkit.scheduler.BukkitTask;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.UUID;
 import java.util.function.BiConsumer;
 
 /**
- * Ticks every second:
- * - recompute antenna/range (so building changes are reflected)
- * - drain fuel using f(R_final) = 1.002^R_final - 1
- * - auto-disable on empty fuel or missing antennas
+ * Keeps enabled radios within their fuel and antenna budget without a per-second sweep:
+ * - fuel burns lazily (Radio re-prices its own ledger whenever state or range changes)
+ * - every saved change queues the moment the radio's fuel runs out
+ * - a single task wakes at the earliest such moment and disables what is actually dry
+ * - a save that leaves an enabled radio without antennas disables it right away
+ * - burning radios are checkpointed and saved every CHECKPOINT_SECONDS
+ * Persisted fuel is the last checkpoint, so a crash refunds at most CHECKPOINT_SECONDS
+ * of burn per radio; a clean stop disables (and so checkpoints) every radio.
+ * Main thread only.
  */
 public class OperatorGuardTask {
 
+    private record Deadline(long at, UUID id) {}
+
+    private static final long CHECKPOINT_SECONDS = 60;
+
     private final CivLabsRadiosPlugin plugin;
     private final RadioStore store;
     private final BiConsumer<Radio, DisableReason> disableFn;
-    private BukkitTask task;
+    private final PriorityQueue<Deadline> deadlines = new PriorityQueue<>((a, b) -> Long.compare(a.at(), b.at()));
+    private final Map<UUID, Long> current = new HashMap<>(); // radio -> its live deadline; older queue entries are stale
+    private BukkitTask wake;
+    private BukkitTask checkpoints;
+    private long wakeAt = Long.MAX_VALUE;
+    private boolean running;
 
     public OperatorGuardTask(CivLabsRadiosPlugin plugin, RadioStore store, BiConsumer<Radio, DisableReason> disableFn) {
         this.plugin = plugin;
@@ -33,40 +50,96 @@ public class OperatorGuardTask {
 
     public void start() {
         stop();
-        this.task = Bukkit.getScheduler().runTaskTimer(plugin,this::run, 20L, 20L);
+        running = true;
+        store.onChange(this::track);
+        for (Radio r : store.getAll()) track(r); // radios left enabled by a crash burn again
+        checkpoints = Bukkit.getScheduler().runTaskTimer(plugin, this::checkpointBurning,
+                CHECKPOINT_SECONDS * 20, CHECKPOINT_SECONDS * 20);
+    }
+
+    // O(burning radios) once a minute; bounds what a crash can refund
+    private void checkpointBurning() {
+        for (UUID id : new ArrayList<>(current.keySet())) {
+            Radio r = store.get(id);
+            if (r == null) continue;
+            r.checkpoint();
+            store.save(r); // same exhaustion time, so track() leaves the queue alone
+        }
     }
 
-    // function that gets run by the scheduler
-    private void run(){
-        for (Radio r : store.getAll()) {
-            if (!r.isEnabled()) continue;
+    /** (Re)queues r's fuel exhaustion from its already re-priced ledger. */
+    public void track(Radio r) {
+        if (!running) return;
+        boolean noAntenna = r.getAntennaCount() <= 0 || r.getMaxRangeBlocks() <= 0;
+        if (r.isEnabled() && noAntenna) {
+            current.remove(r.getId());
+            disableFn.accept(r, DisableReason.ADMIN);
+            UUID opId = r.getOperator();
+            Player op = (opId != null ? Bukkit.getPlayer(opId) : null);
+            if (op != null) op.sendMessage(net.kyori.adventure.text.Component.text("§cNo vertical antenna stack found."));
+            return;
+        }
 
-            // Update antenna & range each tick (cheap; ensures live structure)
-            RadioMath.recomputeAntennaAndRange(r);
+        long at = r.fuelExhaustedAtMillis();
+        if (at == Long.MAX_VALUE) {
+            current.remove(r.getId());
+            return;
+        }
+        Long prev = current.put(r.getId(), at);
+        if (prev != null && prev == at) return; // already queued
+        deadlines.add(new Deadline(at, r.getId()));
+        schedule();
+    }
 
-            if (r.getAntennaCount() <= 0 || r.getMaxRangeBlocks() <= 0) {
-                disableFn.accept(r, DisableReason.ADMIN);
-                UUID opId = r.getOperator();
-                Player op = (opId != null ? Bukkit.getPlayer(opId) : null);
-                if (op != null) op.sendMessage(net.kyori.adventure.text.Component.text("§cNo vertical antenna stack found."));
-                continue;
-            }
+    // pops everything due; only entries that are still a radio's live deadline count
+    private void run() {
+        wake = null;
+        wakeAt = Long.MAX_VALUE;
+        long now = System.currentTimeMillis();
+        while (!deadlines.isEmpty() && deadlines.peek().at() <= now) {
+            Deadline d = deadlines.poll();
+            Long live = current.get(d.id());
+            if (live == null || live != d.at()) continue;
+            current.remove(d.id());
 
-            if (r.getFuelSeconds() > 0) {
-                int burn = RadioMath.burnPerSecond(r.getFinalRangeBlocks()); // ceil(1.002^R - 1)
-                r.setFuelSeconds(r.getFuelSeconds() - Math.max(1, burn));   // always at least 1/s
-                store.save(r);
-            }
+            Radio r = store.get(d.id());
+            if (r == null || !r.isEnabled()) continue;
+            if (r.fuelAt(now) <= 0) disableFn.accept(r, DisableReason.FUEL);
+            else track(r); // refuelled without a save; queue the new moment
+        }
+        schedule();
+    }
 
-            if (r.getFuelSeconds() <= 0) {
-                disableFn.accept(r, DisableReason.FUEL);
-            }
+    private void schedule() {
+        // drop stale heads so we don't wake up for nothing
+        while (!deadlines.isEmpty()) {
+            Deadline head = deadlines.peek();
+            Long live = current.get(head.id());
+            if (live != null && live == head.at()) break;
+            deadlines.poll();
         }
+        if (!running || deadlines.isEmpty()) return;
+        long at = deadlines.peek().at();
+        if (wake != null && wakeAt <= at) return;
+        if (wake != null) wake.cancel();
+        long ticks = Math.max(1L, (at - System.currentTimeMillis() + 49) / 50);
+        wakeAt = at;
+        wake = Bukkit.getScheduler().runTaskLater(plugin, this::run, ticks);
     }
+
     public void stop() {
-        if (task != null) {
-            task.cancel();
-            task = null;
+        running = false;
+        store.onChange(r -> {});
+        if (wake != null) {
+            wake.cancel();
+            wake = null;
+        }
+        if (checkpoints != null) {
+            checkpoints.cancel();
+            checkpoints = null;
         }
+        wakeAt = Long.MAX_VALUE;
+        deadlines.clear();
+        current.clear();
     }
 }
@@ -1,14 +1,15 @@
 package com.civlabs.radios.util;
 
+import org.bukkit.ChunkSnapshot;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.World;
-import org.bukkit.block.Block;
 
-/** Vertical-only lightning-rod scanning (strictly above the radio block). */
+/** Vertical-only lightning-rod scanning (strictly above the radio block). Never loads a chunk. */
 public final class AntennaUtil {
     private AntennaUtil() {}
 
+    /** Rods above radioLoc in the live world, or -1 if its chunk isn't loaded. Main thread. */
     public static int countVerticalRodsAbove(Location radioLoc) {
         if (radioLoc == null) return 0;
         World w = radioLoc.getWorld();
@@ -16,13 +17,19 @@ public final class AntennaUtil {
         int x = radioLoc.getBlockX();
         int y = radioLoc.getBlockY();
         int z = radioLoc.getBlockZ();
+        if (!w.isChunkLoaded(x >> 4, z >> 4)) return -1; // getBlockAt would load it
 
         int count = 0;
-        while (true) {
-            Block b = w.getBlockAt(x, y + 1 + count, z);
-            if (b.getType() == Material.LIGHTNING_ROD) count++;
-            else break;
-        }
+        int maxY = w.getMaxHeight();
+        while (y + 1 + count < maxY && w.getBlockAt(x, y + 1 + count, z).getType() == Material.LIGHTNING_ROD) count++;
+        return count;
+    }
+
+    /** Rods above (x, y, z) read from a snapshot of the chunk holding that column. Any thread. */
+    public static int countVerticalRodsAbove(ChunkSnapshot chunk, int x, int y, int z, int maxY) {
+        int cx = x & 15, cz = z & 15;
+        int count = 0;
+        while (y + 1 + count < maxY && chunk.getBlockType(cx, y + 1 + count, cz) == Material.LIGHTNING_ROD) count++;
         return count;
     }
 }
@@ -7,19 +7,26 @@ import org.bukkit.Location;
 public final class RadioMath {
     private RadioMath() {}
 
-    /** Recompute antennaCount and maxRangeBlocks from current world state and Y. */
-    public static void recomputeAntennaAndRange(Radio r) {
+    /**
+     * Recompute antennaCount and maxRangeBlocks from current world state and Y.
+     * Returns false and leaves r alone if its chunk isn't loaded.
+     */
+    public static boolean recomputeAntennaAndRange(Radio r) {
         Location loc = r.getLocation();
         int a = AntennaUtil.countVerticalRodsAbove(loc);
+        if (a < 0) return false;
         int b = (loc != null ? loc.getBlockY() : r.getY());
 
-        // R_total = sqrt(30000*a) + 4.687*b - 200, clamped >= 0
-        double partA = Math.sqrt(30000.0 * a);
-        double partB = 4.687 * b - 200.0;
-        int total = (int) Math.max(0, Math.floor(partA + partB));
-
         r.setAntennaCount(a);
-        r.setMaxRangeBlocks(total);
+        r.setMaxRangeBlocks(maxRangeBlocks(a, b));
+        return true;
+    }
+
+    /** R_total = sqrt(30000*a) + 4.687*b - 200, clamped >= 0; a = rods, b = radio Y. */
+    public static int maxRangeBlocks(int antennas, int y) {
+        double partA = Math.sqrt(30000.0 * antennas);
+        double partB = 4.687 * y - 200.0;
+        return (int) Math.max(0, Math.floor(partA + partB));
     }
 
     /** Fuel burn per second using f(x) = 1.002^x - 1, x = R_final */
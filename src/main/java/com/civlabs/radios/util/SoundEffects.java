@@ -2,7 +2,6 @@ package com.civlabs.radios.util;
 
 import com.civlabs.radios.CivLabsRadiosPlugin;
 import org.bukkit.Sound;
-import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.entity.Player;
 
 /**
@@ -18,22 +17,12 @@ public class SoundEffects {
     }
 
     /**
-     * Resolves a configured sound name to a valid Bukkit Sound enum,
+     * Resolves a configured sound from the pre-parsed config snapshot,
      * falling back to a default if missing or invalid.
      */
     private Sound resolve(String configKey, Sound def) {
-        ConfigurationSection sec = plugin.getConfig().getConfigurationSection("sounds");
-        if (sec == null) return def;
-
-        String soundName = sec.getString(configKey, "");
-        if (soundName == null || soundName.isEmpty()) return def;
-
-        try {
-            return Sound.valueOf(soundName.toUpperCase()); // this is deprecated, need to change
-        } catch (IllegalArgumentException ex) {
-            plugin.getLogger().warning("[SoundEffects] Invalid sound name: '" + soundName + "' for key '" + configKey + "'");
-            return def;
-        }
+        Sound s = plugin.config().sounds().get(configKey);
+        return s != null ? s : def;
     }
 
     /** Plays a generic error/buzz sound. */
@@ -0,0 +1,109 @@
+package com.civlabs.radios.voice;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Millisecond-resolution delay line for distance-delayed frames.
+ * A single daemon thread sleeps until the earliest queued frame of any
+ * PlayoutBuffer is due and then flushes every due frame in one pass, so
+ * delayed audio no longer follows server TPS.
+ */
+public class DelayLine {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final Set<PlayoutBuffer> active = new LinkedHashSet<>(); // guarded by lock
+    private long nextDue = Long.MAX_VALUE;                            // guarded by lock
+    private final List<PlayoutBuffer> work = new ArrayList<>();       // only touched by the delay thread
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    public DelayLine() {
+        this.thread = new Thread(this::loop, "CivLabsRadios-DelayLine");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Queues frame on buffer and makes sure the delay thread wakes up for it.
+     * @return false if the buffer dropped the frame as late
+     */
+    public boolean schedule(PlayoutBuffer buffer, byte[] frame, double baseDelaySec, double jitterPct) {
+        long at = buffer.offer(frame, System.nanoTime(), baseDelaySec, jitterPct);
+        if (at < 0) return false;
+        lock.lock();
+        try {
+            active.add(buffer);
+            if (at < nextDue) {
+                nextDue = at;
+                changed.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+        return true;
+    }
+
+    public int activeBuffers() {
+        lock.lock();
+        try { return active.size(); } finally { lock.unlock(); }
+    }
+
+    private void loop() {
+        while (running) {
+            lock.lock();
+            try {
+                long wait = nextDue == Long.MAX_VALUE ? Long.MAX_VALUE : nextDue - System.nanoTime();
+                if (wait > 0) {
+                    if (wait == Long.MAX_VALUE) changed.await();
+                    else changed.awaitNanos(wait);
+                    continue;
+                }
+                work.addAll(active);
+                nextDue = Long.MAX_VALUE; // producers lower it again while we flush
+            } catch (InterruptedException e) {
+                break;
+            } finally {
+                lock.unlock();
+            }
+
+            long now = System.nanoTime();
+            long earliest = Long.MAX_VALUE;
+            for (int i = 0; i < work.size(); i++) {
+                try { earliest = Math.min(earliest, work.get(i).flush(now)); }
+                catch (Throwable ignore) {}
+            }
+            work.clear();
+
+            lock.lock();
+            try {
+                // a buffer refilled after its flush was re-added by schedule(), so only drop empty ones
+                for (Iterator<PlayoutBuffer> it = active.iterator(); it.hasNext(); ) {
+                    if (it.next().isEmpty()) it.remove();
+                }
+                nextDue = Math.min(nextDue, earliest);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /** Stops the delay thread and discards anything still queued. */
+    public void shutdown() {
+        running = false;
+        thread.interrupt();
+        lock.lock();
+        try {
+            for (PlayoutBuffer b : active) b.clear();
+            active.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
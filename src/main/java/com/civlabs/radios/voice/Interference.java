@@ -1,10 +1,23 @@
 package com.civlabs.radios.voice;
 
+import java.util.Random;
 import java.util.concurrent.ThreadLocalRandom;
 
-/** Very lightweight band-limited noise (telephone band) for radio static. */
+/**
+ * Very lightweight band-limited noise (telephone band) for radio static.
+ * The noise is generated once per sample rate into a looping wavetable with the
+ * 300–3400 Hz filters already applied. Each instance is one noise stream that
+ * keeps its read position across frames, so consecutive frames join without clicks.
+ */
 public class Interference {
 
+    // ~1.4 s at 48 kHz, long enough that the loop is not audible under speech
+    private static final int TABLE_SIZE = 1 << 16;
+    private static final int TABLE_MASK = TABLE_SIZE - 1;
+
+    private record Table(int sampleRate, float[] samples) {}
+    private static volatile Table table;
+
     // One-pole HP/LP to roughly confine noise to 300–3400 Hz
     private static final class OnePole {
         double a0, a1, b1, z1;
@@ -23,36 +36,80 @@ public class Interference {
         }
     }
 
-    private final OnePole hp = new OnePole();
-    private final OnePole lp = new OnePole();
-    private final ThreadLocalRandom rnd = ThreadLocalRandom.current();
-    private final int sampleRate;
+    private final float[] noise;
+    private final PcmMixer mixer;
+    private int phase;
+    private short[] scratch = new short[0];
 
     public Interference(int sampleRate) {
-        this.sampleRate = sampleRate;
-        hp.setHP(300.0, sampleRate);
-        lp.setLP(3400.0, sampleRate);
+        this(sampleRate, PcmMixer.scalar());
+    }
+
+    public Interference(int sampleRate, PcmMixer mixer) {
+        this.noise = tableFor(sampleRate);
+        this.mixer = mixer;
+        this.phase = ThreadLocalRandom.current().nextInt(TABLE_SIZE); // decorrelate streams
     }
 
     /** Mixes radio-static into pcm in-place at the given linear amplitude (0..~0.4). */
     public void mixStatic(short[] pcm, double noiseAmp) {
         if (noiseAmp <= 0) return;
-        for (int i = 0; i < pcm.length; i++) {
-            // white noise → band-limit
-            float n = (rnd.nextFloat() * 2f - 1f);
-            n = hp.process(n);
-            n = lp.process(n);
+        mix(pcm, pcm, pcm.length, (float) (noiseAmp * 32767.0));
+    }
+
+    /**
+     * Mixes static into a copy of src held in this stream's reusable buffer.
+     * The returned array is only valid until the next call.
+     */
+    public short[] mixInto(short[] src, double noiseAmp) {
+        if (scratch.length != src.length) scratch = new short[src.length];
+        if (noiseAmp <= 0) {
+            System.arraycopy(src, 0, scratch, 0, src.length);
+            return scratch;
+        }
+        mix(src, scratch, src.length, (float) (noiseAmp * 32767.0));
+        return scratch;
+    }
+
+    // split at the table wrap so the kernel always sees contiguous runs
+    private void mix(short[] src, short[] dst, int len, float gain) {
+        int off = 0, p = phase;
+        while (off < len) {
+            int n = Math.min(len - off, TABLE_SIZE - p);
+            mixer.mix(src, off, dst, noise, p, n, gain);
+            off += n;
+            p = (p + n) & TABLE_MASK;
+        }
+        phase = p;
+    }
+
+    // rebuilt only if the configured sample rate changes
+    private static float[] tableFor(int sampleRate) {
+        Table t = table;
+        if (t != null && t.sampleRate() == sampleRate) return t.samples();
+        synchronized (Interference.class) {
+            t = table;
+            if (t == null || t.sampleRate() != sampleRate) table = t = new Table(sampleRate, generate(sampleRate));
+            return t.samples();
+        }
+    }
 
-            // (optional) flutter wobble removed for stability
-            double wobble = 1.0;
+    private static float[] generate(int sampleRate) {
+        OnePole hp = new OnePole();
+        OnePole lp = new OnePole();
+        hp.setHP(300.0, sampleRate);
+        lp.setLP(3400.0, sampleRate);
+        Random rnd = new Random();
 
-            double x = pcm[i] / 32768.0;
-            x += noiseAmp * wobble * n;
+        // run the filters once through a full table first so the stored loop starts settled
+        for (int i = 0; i < TABLE_SIZE; i++) lp.process(hp.process(rnd.nextFloat() * 2f - 1f));
 
-            if (x > 1.0) x = 1.0;
-            if (x < -1.0) x = -1.0;
-            pcm[i] = (short) Math.round(x * 32767.0);
+        float[] t = new float[TABLE_SIZE];
+        for (int i = 0; i < TABLE_SIZE; i++) {
+            // white noise → band-limit
+            t[i] = lp.process(hp.process(rnd.nextFloat() * 2f - 1f));
         }
+        return t;
     }
 
     /** Convert dBFS (negative) to linear amplitude. */
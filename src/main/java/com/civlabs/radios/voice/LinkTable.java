@@ -0,0 +1,59 @@
+package com.civlabs.radios.voice;
+
+import com.civlabs.radios.store.RadioTopology;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache of per (transmitter, receiver) propagation parameters.
+ * Each link remembers the topology node versions it was computed from, so a
+ * retuned or re-ranged radio simply misses the cache; entries are only dropped
+ * outright when a radio goes away.
+ */
+public class LinkTable {
+
+    /** Precomputed propagation for one transmitter/receiver pair. */
+    public record Link(
+            double distance,
+            double baseDelaySec,  // before per-frame jitter
+            double dropChance,
+            int noiseBucket,      // 0 = no audible static
+            double noiseAmp,      // linear amplitude of noiseBucket
+            long txVersion,
+            long rxVersion
+    ) {
+        /** True if neither radio changed since this link was computed. */
+        public boolean current(RadioTopology.Node tx, RadioTopology.Node rx) {
+            return txVersion == tx.version() && rxVersion == rx.version();
+        }
+    }
+
+    // tx -> rx -> link; nested so lookups need no key allocation
+    private final Map<UUID, Map<UUID, Link>> links = new ConcurrentHashMap<>();
+
+    /** Cached link, or null. Check current() before using it. */
+    public Link get(UUID tx, UUID rx) {
+        Map<UUID, Link> row = links.get(tx);
+        return row == null ? null : row.get(rx);
+    }
+
+    public void put(UUID tx, UUID rx, Link link) {
+        links.computeIfAbsent(tx, k -> new ConcurrentHashMap<>()).put(rx, link);
+    }
+
+    /** Drops every link that has radioId on either end. */
+    public void invalidate(UUID radioId) {
+        links.remove(radioId);
+        for (Map<UUID, Link> row : links.values()) row.remove(radioId);
+    }
+
+    public void clear() { links.clear(); }
+
+    public int size() {
+        int n = 0;
+        for (Map<UUID, Link> row : links.values()) n += row.size();
+        return n;
+    }
+}
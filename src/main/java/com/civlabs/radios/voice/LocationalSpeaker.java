@@ -1,52 +1,56 @@
 package com.civlabs.radios.voice;
 
 import de.maxhenkel.voicechat.api.Position;
+import de.maxhenkel.voicechat.api.ServerLevel;
 import de.maxhenkel.voicechat.api.VoicechatServerApi;
 import de.maxhenkel.voicechat.api.audiochannel.LocationalAudioChannel;
-import org.bukkit.Location;
 
 import java.util.UUID;
 
 /** Thin wrapper around a locational audio channel that accepts Opus frames. */
 public class LocationalSpeaker {
 
-    private final VoicechatServerApi api;
-    private LocationalAudioChannel channel;
-    private UUID channelId;
-    private Position pos;
+    private volatile LocationalAudioChannel channel;
+    private final Position pos;
     private int radius;
-
-    public LocationalSpeaker(VoicechatServerApi api, Location loc, int radius) {
-        this.api = api;
-        ensureAt(loc, radius);
+    private volatile long lastActive;
+
+    /** pos is computed once by SpeakerManager; radios never move, so the channel is never rebuilt. */
+    public LocationalSpeaker(VoicechatServerApi api, ServerLevel level, Position pos, int radius) {
+        this.pos = pos;
+        this.radius = radius;
+        this.channel = api.createLocationalAudioChannel(UUID.randomUUID(), level, pos);
+        if (channel != null) {
+            channel.setDistance(radius);
+        }
+        this.lastActive = System.currentTimeMillis();
     }
 
-    public void ensureAt(Location loc, int radius) {
-        Position p = api.createPosition(loc.getX(), loc.getY(), loc.getZ());
-        boolean needNew = channel == null
-                || this.radius != radius
-                || pos == null
-                || !pos.equals(p);
-
-        if (needNew) {
-            close();
-            channelId = UUID.randomUUID();
-            pos = p;
-            this.radius = radius;
-            channel = api.createLocationalAudioChannel(channelId, api.fromServerLevel(loc.getWorld()), pos);
-            if (channel != null) {
-                channel.setDistance(radius);
-            }
-        }
+    /** Applies a changed speakerRadius (after /radio reload) without recreating the channel. */
+    public void setRadius(int radius) {
+        if (this.radius == radius) return;
+        this.radius = radius;
+        LocationalAudioChannel c = channel;
+        if (c != null) c.setDistance(radius);
     }
 
     public void playFrame(byte[] opusFrame) {
-        if (channel != null && opusFrame != null && opusFrame.length > 0) {
-            channel.send(opusFrame); // Voice chat expects Opus data
+        LocationalAudioChannel c = channel;
+        if (c != null && opusFrame != null && opusFrame.length > 0) {
+            c.send(opusFrame); // Voice chat expects Opus data
+            lastActive = System.currentTimeMillis();
         }
     }
 
+    /** Marks the speaker in use; frames scheduled far ahead keep it alive until they play. */
+    public void touch() { lastActive = System.currentTimeMillis(); }
+
+    public Position position() { return pos; }
+
+    public long lastActive() { return lastActive; }
+
     public void close() {
         // In modern SVC versions, LocationalAudioChannel is auto-closed; no explicit method.
         channel = null;
-    }}
+    }
+}
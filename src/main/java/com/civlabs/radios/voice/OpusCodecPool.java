@@ -0,0 +1,93 @@
+package com.civlabs.radios.voice;
+
+import de.maxhenkel.voicechat.api.VoicechatServerApi;
+import de.maxhenkel.voicechat.api.opus.OpusDecoder;
+import de.maxhenkel.voicechat.api.opus.OpusEncoder;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Opus decoders/encoders bound once against the SVC api.
+ * Codecs are stateful, so one instance is kept per audio stream and reused
+ * frame after frame; streams that stay quiet for idleMillis are closed.
+ */
+public class OpusCodecPool {
+
+    private static final long SWEEP_INTERVAL_MS = 1000L;
+
+    private static final class Slot<C> {
+        final C codec;
+        volatile long lastUsed;
+        Slot(C codec) { this.codec = codec; }
+    }
+
+    private final VoicechatServerApi api;
+    private final long idleMillis;
+    private final Map<Object, Slot<OpusDecoder>> decoders = new ConcurrentHashMap<>();
+    private final Map<Object, Slot<OpusEncoder>> encoders = new ConcurrentHashMap<>();
+    private final Function<Object, Slot<OpusDecoder>> newDecoder;
+    private final Function<Object, Slot<OpusEncoder>> newEncoder;
+    private long lastSweep;
+
+    public OpusCodecPool(VoicechatServerApi api, long idleMillis) {
+        this.api = api;
+        this.idleMillis = idleMillis;
+        this.newDecoder = k -> new Slot<>(this.api.createDecoder());
+        this.newEncoder = k -> new Slot<>(this.api.createEncoder());
+    }
+
+    /** Decoder owned by the given stream, created on first use. */
+    public OpusDecoder decoder(Object stream) {
+        Slot<OpusDecoder> s = decoders.computeIfAbsent(stream, newDecoder);
+        if (s.codec.isClosed()) {
+            decoders.remove(stream, s);
+            s = decoders.computeIfAbsent(stream, newDecoder);
+        }
+        s.lastUsed = System.currentTimeMillis();
+        return s.codec;
+    }
+
+    /** Encoder owned by the given stream, created on first use. */
+    public OpusEncoder encoder(Object stream) {
+        Slot<OpusEncoder> s = encoders.computeIfAbsent(stream, newEncoder);
+        if (s.codec.isClosed()) {
+            encoders.remove(stream, s);
+            s = encoders.computeIfAbsent(stream, newEncoder);
+        }
+        s.lastUsed = System.currentTimeMillis();
+        return s.codec;
+    }
+
+    /**
+     * Closes codecs of streams idle longer than idleMillis. Cheap to call per packet.
+     * @return true if a sweep actually ran, so callers can piggyback their own cleanup
+     */
+    public boolean evictIdle() {
+        long now = System.currentTimeMillis();
+        if (now - lastSweep < SWEEP_INTERVAL_MS) return false;
+        lastSweep = now;
+        long cutoff = now - idleMillis;
+        for (Iterator<Slot<OpusDecoder>> it = decoders.values().iterator(); it.hasNext(); ) {
+            Slot<OpusDecoder> s = it.next();
+            if (s.lastUsed < cutoff) { it.remove(); s.codec.close(); }
+        }
+        for (Iterator<Slot<OpusEncoder>> it = encoders.values().iterator(); it.hasNext(); ) {
+            Slot<OpusEncoder> s = it.next();
+            if (s.lastUsed < cutoff) { it.remove(); s.codec.close(); }
+        }
+        return true;
+    }
+
+    public int size() { return decoders.size() + encoders.size(); }
+
+    /** Closes every pooled codec. */
+    public void close() {
+        for (Slot<OpusDecoder> s : decoders.values()) s.codec.close();
+        for (Slot<OpusEncoder> s : encoders.values()) s.codec.close();
+        decoders.clear();
+        encoders.clear();
+    }
+}
@@ -0,0 +1,34 @@
+package com.civlabs.radios.voice;
+
+import java.util.logging.Logger;
+
+/**
+ * Inner loop of the static mixer over one contiguous run:
+ * dst[i] = clamp(src[i] + gain * noise[i]) with saturation to the 16-bit range.
+ * dst is written at the same offsets as src.
+ */
+public interface PcmMixer {
+
+    void mix(short[] src, int srcOff, short[] dst, float[] noise, int noiseOff, int len, float gain);
+
+    String name();
+
+    static PcmMixer scalar() { return ScalarPcmMixer.INSTANCE; }
+
+    /**
+     * Picks the vectorized kernel when allowed and the JVM was started with
+     * --add-modules jdk.incubator.vector, otherwise the scalar one.
+     */
+    static PcmMixer select(boolean allowVector, Logger log) {
+        if (allowVector && ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                // loaded by name so the scalar path never links against the incubator module
+                return (PcmMixer) Class.forName("com.civlabs.radios.voice.VectorPcmMixer")
+                        .getDeclaredConstructor().newInstance();
+            } catch (Throwable t) {
+                log.warning("Vector PCM mixer unavailable, using scalar: " + t);
+            }
+        }
+        return scalar();
+    }
+}
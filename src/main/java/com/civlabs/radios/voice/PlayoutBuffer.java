@@ -0,0 +1,100 @@
+package com.civlabs.radios.voice;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ordered playout queue for one transmitter → receiver link.
+ * The jittered delay is picked once per talk spurt and held until the talker
+ * pauses, so frames of one spurt keep their spacing and order. A frame that
+ * would play before one already queued is dropped instead of reordered.
+ * Slots live in a ring that only grows, so steady state allocates nothing.
+ */
+public class PlayoutBuffer {
+
+    // a pause this long starts a new talk spurt (SVC sends a frame every 20 ms while talking)
+    private static final long SPURT_GAP_NANOS = TimeUnit.MILLISECONDS.toNanos(200);
+
+    private final LocationalSpeaker speaker;
+    private long[] due = new long[16];
+    private byte[][] frames = new byte[16][];
+    private int head, size;
+
+    private long lastArrival = Long.MIN_VALUE;
+    private long spurtDelay;
+    private long lastDue = Long.MIN_VALUE;
+    private long dropped;
+
+    public PlayoutBuffer(LocationalSpeaker speaker) {
+        this.speaker = speaker;
+    }
+
+    /**
+     * Queues frame for playout baseDelaySec (± jitterPct, fixed per spurt) after now.
+     * @return the frame's due time, or -1 if it was dropped as late
+     */
+    public synchronized long offer(byte[] frame, long now, double baseDelaySec, double jitterPct) {
+        if (lastArrival == Long.MIN_VALUE || now - lastArrival > SPURT_GAP_NANOS) {
+            double j = jitterPct > 0 ? (ThreadLocalRandom.current().nextDouble() * 2 - 1) * jitterPct : 0;
+            spurtDelay = (long) (Math.max(0.0, baseDelaySec * (1.0 + j)) * 1_000_000_000L);
+        }
+        lastArrival = now;
+
+        long at = now + spurtDelay;
+        if (at <= lastDue) { // a shorter new spurt would overtake the tail of the last one
+            dropped++;
+            return -1;
+        }
+        if (size == due.length) grow();
+        int tail = (head + size) % due.length;
+        due[tail] = at;
+        frames[tail] = frame;
+        size++;
+        lastDue = at;
+        return at;
+    }
+
+    /**
+     * Sends every frame due by now, in order.
+     * @return due time of the next queued frame, or Long.MAX_VALUE if empty
+     */
+    public long flush(long now) {
+        while (true) {
+            byte[] frame;
+            synchronized (this) {
+                if (size == 0) return Long.MAX_VALUE;
+                if (due[head] > now) return due[head];
+                frame = frames[head];
+                frames[head] = null;
+                head = (head + 1) % due.length;
+                size--;
+            }
+            // outside the lock so the voice thread never waits on a send
+            try { speaker.playFrame(frame); } catch (Throwable ignore) {}
+        }
+    }
+
+    public synchronized boolean isEmpty() { return size == 0; }
+
+    public synchronized long dropped() { return dropped; }
+
+    /** Discards queued frames. */
+    public synchronized void clear() {
+        for (int i = 0; i < size; i++) frames[(head + i) % frames.length] = null;
+        head = 0;
+        size = 0;
+    }
+
+    private void grow() {
+        int n = due.length;
+        long[] d = new long[n * 2];
+        byte[][] f = new byte[n * 2][];
+        for (int i = 0; i < size; i++) {
+            d[i] = due[(head + i) % n];
+            f[i] = frames[(head + i) % n];
+        }
+        due = d;
+        frames = f;
+        head = 0;
+    }
+}
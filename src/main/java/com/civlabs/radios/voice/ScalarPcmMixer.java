@@ -0,0 +1,19 @@
+package com.civlabs.radios.voice;
+
+/** Portable one-sample-at-a-time mixer; the fallback when the Vector API is not available. */
+public final class ScalarPcmMixer implements PcmMixer {
+
+    static final ScalarPcmMixer INSTANCE = new ScalarPcmMixer();
+
+    @Override
+    public void mix(short[] src, int srcOff, short[] dst, float[] noise, int noiseOff, int len, float gain) {
+        for (int i = 0; i < len; i++) {
+            float v = src[srcOff + i] + gain * noise[noiseOff + i];
+            v = v > 32767f ? 32767f : (v < -32768f ? -32768f : v);
+            dst[srcOff + i] = (short) v;
+        }
+    }
+
+    @Override
+    public String name() { return "scalar"; }
+}
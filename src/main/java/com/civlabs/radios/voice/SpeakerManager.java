@@ -0,0 +1,110 @@
+package com.civlabs.radios.voice;
+
+import com.civlabs.radios.store.RadioTopology;
+import de.maxhenkel.voicechat.api.ServerLevel;
+import de.maxhenkel.voicechat.api.VoicechatServerApi;
+import org.bukkit.World;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Owns one locational channel per receiving radio.
+ * The channel position is computed once when the speaker is created and the
+ * channel is reused for every frame; speakers that stay silent longer than the
+ * idle timeout are evicted so memory stays bounded by the radios actually in use.
+ * Runs on the voice thread: worlds come from a map kept up to date on the main thread,
+ * never from Bukkit directly.
+ */
+public class SpeakerManager {
+
+    private static final long SWEEP_INTERVAL_MS = 5000L;
+
+    private final VoicechatServerApi api;
+    private final Consumer<UUID> onEvict;
+    private final Function<String, World> worlds;
+    private final Supplier<RadioTopology> topology;
+    private final Map<UUID, LocationalSpeaker> speakers = new ConcurrentHashMap<>();
+    // radio -> topology version that includes its removal; no new speaker for it before then
+    private final Map<UUID, Long> removedAt = new ConcurrentHashMap<>();
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong evicted = new AtomicLong();
+    private volatile long lastSweep;
+
+    public SpeakerManager(VoicechatServerApi api, Consumer<UUID> onEvict,
+                          Function<String, World> worlds, Supplier<RadioTopology> topology) {
+        this.api = api;
+        this.onEvict = onEvict;
+        this.worlds = worlds;
+        this.topology = topology;
+    }
+
+    /**
+     * Speaker of rx, created on first use; null if the radio's world is not loaded, the
+     * radio is gone from the current topology, or it was removed and the topology hasn't
+     * caught up with that yet.
+     */
+    public LocationalSpeaker speakerFor(RadioTopology.Node rx, int radius) {
+        LocationalSpeaker sp = speakers.get(rx.id());
+        if (sp == null) {
+            World w = rx.world() == null ? null : worlds.apply(rx.world());
+            if (w == null) return null;
+            // checked inside the compute: remove() marks before it takes the speaker out,
+            // so a speaker created racing it is either refused or removed with it
+            sp = speakers.computeIfAbsent(rx.id(), id -> {
+                RadioTopology current = topology.get();
+                Long gone = removedAt.get(id);
+                if (gone != null && current.version() < gone) return null;
+                if (current.node(id) == null) return null;
+                created.incrementAndGet();
+                ServerLevel level = api.fromServerLevel(w);
+                return new LocationalSpeaker(api, level, api.createPosition(rx.x(), rx.y(), rx.z()), radius);
+            });
+            if (sp == null) return null;
+        }
+        sp.setRadius(radius);
+        sp.touch();
+        return sp;
+    }
+
+    /** Closes radioId's speaker; it isn't recreated before the topology reaches routeVersion. */
+    public void remove(UUID radioId, long routeVersion) {
+        removedAt.put(radioId, routeVersion);
+        LocationalSpeaker sp = speakers.remove(radioId);
+        if (sp != null) sp.close();
+    }
+
+    /** Evicts speakers silent for longer than idleMillis. Cheap to call per packet. */
+    public void evictIdle(long idleMillis) {
+        long now = System.currentTimeMillis();
+        if (now - lastSweep < SWEEP_INTERVAL_MS) return;
+        lastSweep = now;
+        long cutoff = now - idleMillis;
+        long caughtUp = topology.get().version();
+        removedAt.values().removeIf(v -> v <= caughtUp);
+        for (Iterator<Map.Entry<UUID, LocationalSpeaker>> it = speakers.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<UUID, LocationalSpeaker> e = it.next();
+            if (e.getValue().lastActive() >= cutoff) continue;
+            it.remove();
+            e.getValue().close();
+            evicted.incrementAndGet();
+            onEvict.accept(e.getKey());
+        }
+    }
+
+    public void closeAll() {
+        for (LocationalSpeaker sp : speakers.values()) sp.close();
+        speakers.clear();
+        removedAt.clear();
+    }
+
+    public int live() { return speakers.size(); }
+    public long created() { return created.get(); }
+    public long evicted() { return evicted.get(); }
+}
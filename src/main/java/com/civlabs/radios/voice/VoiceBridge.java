@@ -1,21 +1,24 @@
 package com.civlabs.radios.voice;
 
 import com.civlabs.radios.CivLabsRadiosPlugin;
+import com.civlabs.radios.core.ProximityIndex;
+import com.civlabs.radios.core.RadiosConfig;
 import com.civlabs.radios.model.Radio;
-import com.civlabs.radios.util.RadioMath;
+import com.civlabs.radios.store.RadioTopology;
 import de.maxhenkel.voicechat.api.Group;
 import de.maxhenkel.voicechat.api.VoicechatConnection;
 import de.maxhenkel.voicechat.api.VoicechatServerApi;
 import de.maxhenkel.voicechat.api.events.MicrophonePacketEvent;
 import de.maxhenkel.voicechat.api.events.VoicechatServerStartedEvent;
-import net.kyori.adventure.text.Component;
 import org.bukkit.Bukkit;
-import org.bukkit.Location;
-import org.bukkit.entity.Player;
+import org.bukkit.World;
 
-import java.lang.reflect.Method;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
 
 /**
  * Handles bridging voice packets and applying distance-based delay/static.
@@ -23,135 +26,252 @@ import java.util.concurrent.ThreadLocalRandom;
  */
 public class VoiceBridge {
 
-    private final CivLabsRadiosPlugin plugin;
+    private final Supplier<RadioTopology> topology;
+    private final LongSupplier routeVersion;
+    private final Supplier<RadiosConfig> config;
+    private final ProximityIndex proximity;
+    private final Logger logger;
     private VoicechatServerApi api;
 
-    private final Map<Integer, UUID> txGroupIds = new HashMap<>();
-    private final Map<UUID, LocationalSpeaker> speakers = new HashMap<>();
-    private boolean interferenceEnabled;
-    private int sampleRate;
-    private double maxNoiseDb;
-    private double farDistance;
-    private int maxAudible;
+    private final Map<Integer, UUID> txGroupIds = new ConcurrentHashMap<>();
+    // loaded worlds by name, kept by the main thread; Bukkit.getWorld isn't safe from the voice thread
+    private final Map<String, World> worlds = new ConcurrentHashMap<>();
+    // volatile: shutdown() nulls them while the mic thread may be mid-packet
+    private volatile SpeakerManager speakers;
+    private volatile OpusCodecPool codecs;
+    private final LinkTable links = new LinkTable();
+    private final DelayLine delayLine = new DelayLine();
+    // rx -> tx -> playout buffer; lives as long as the receiver's speaker
+    private final Map<UUID, Map<UUID, PlayoutBuffer>> playouts = new ConcurrentHashMap<>();
+    private RadiosConfig linkConfig; // config the cached links were computed with
+    // talker -> static streams indexed by noise bucket
+    private final Map<UUID, NoiseStream[]> noiseStreams = new ConcurrentHashMap<>();
+    private final PcmMixer mixer;
+    private final VoiceStats stats = new VoiceStats();
+    // per mic thread, reused packet to packet so the hot path allocates nothing
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+
+    private static final class Scratch {
+        final List<RadioTopology.Node> receivers = new ArrayList<>();
+        byte[][] noisyByBucket = new byte[0][];
+
+        // encoded frames by noise bucket, emptied for the next packet
+        byte[][] noisy(int buckets) {
+            if (noisyByBucket.length != buckets) noisyByBucket = new byte[buckets][];
+            else Arrays.fill(noisyByBucket, null);
+            return noisyByBucket;
+        }
+    }
 
     public VoiceBridge(CivLabsRadiosPlugin plugin) {
-        this.plugin = plugin;
-        loadConfig();
+        this(() -> plugin.store().topology(), () -> plugin.store().routeVersion(),
+                plugin::config, plugin.proximity(), plugin.getLogger());
+        for (World w : Bukkit.getWorlds()) worldLoaded(w);
+    }
+
+    // wiring without a running server, used by the benchmarks
+    VoiceBridge(Supplier<RadioTopology> topology, LongSupplier routeVersion, Supplier<RadiosConfig> config,
+                ProximityIndex proximity, Logger logger) {
+        this.topology = topology;
+        this.routeVersion = routeVersion;
+        this.config = config;
+        this.proximity = proximity;
+        this.logger = logger;
+        this.mixer = PcmMixer.select(config.get().simdMixing(), logger);
+        logger.info("Static mixer: " + mixer.name());
     }
 
     public void onServerStarted(VoicechatServerStartedEvent event) {
         this.api = event.getVoicechat();
+        if (codecs != null) codecs.close();
+        this.codecs = new OpusCodecPool(api, config.get().codecIdleMillis());
+        if (speakers != null) speakers.closeAll();
+        this.speakers = new SpeakerManager(api, this::dropPlayouts, worlds::get, topology);
 
         logDebug("Voice started: created ");
     }
-    public void loadConfig(){
-        interferenceEnabled = plugin.getConfig().getBoolean("voice.interference.enabled", true);
-        sampleRate = plugin.getConfig().getInt("voice.sampleRate", 48000);
-        maxNoiseDb = plugin.getConfig().getDouble("voice.interference.maxNoiseDb", -24.0);
-        farDistance = plugin.getConfig().getDouble("voice.interference.farDistance", 6000.0);
-        maxAudible = plugin.getConfig().getInt("speakerRadius", 30);
-    }
     
     public void onMicPacket(MicrophonePacketEvent event) {
         // this function is too big
         if (api == null || event.getSenderConnection() == null) return;
 
+        // read once: a disable can null the fields under us
+        OpusCodecPool cp = codecs;
+        SpeakerManager sm = speakers;
+        if (cp == null || sm == null) return;
+
         UUID talker = event.getSenderConnection().getPlayer().getUuid();
 
-        Radio tx = plugin.store().getAll().stream()
-                .filter(Radio::isEnabled)
-                .filter(r -> r.getTransmitFrequency() > 0)
-                .filter(r -> talker.equals(r.getOperator()))
-                .findFirst()
-                .orElse(null);
+        long t0 = System.nanoTime();
+        // immutable snapshot published by RadioStore; never touch live Radio objects from here
+        RadioTopology topo = topology.get();
+        RadioTopology.Node tx = topo.transmitterOf(talker);
         if (tx == null) return;
 
         byte[] opusData = event.getPacket().getOpusEncodedData();
         if (opusData == null || opusData.length == 0) return;
+        stats.packetIn();
+        long t1 = System.nanoTime();
+        stats.record(VoiceStats.Stage.TX_LOOKUP, t1 - t0);
+
+        // only receivers in the transmitter's world and range; the rest can't hear it anyway
+        Scratch buf = scratch.get();
+        List<RadioTopology.Node> receivers = topo.listenersInRange(tx, buf.receivers);
+        if (receivers.isEmpty()) {
+            stats.record(VoiceStats.Stage.RX_RESOLVE, System.nanoTime() - t1);
+            return;
+        }
 
-        int txFreq = tx.getTransmitFrequency();
-        Location txLoc = tx.getLocation();
-        if (txLoc == null || txLoc.getWorld() == null) return;
-
-        List<Radio> receivers = plugin.store().listenersOn(txFreq);
-        if (receivers == null || receivers.isEmpty()) return;
-
-        loadConfig();
+        // one snapshot per packet so a concurrent /radio reload applies atomically
+        RadiosConfig cfg = config.get();
+        int maxAudible = cfg.speakerRadius();
+        if (cp.evictIdle()) evictIdleNoise(cfg.codecIdleMillis());
+        sm.evictIdle(cfg.speakerIdleMillis());
+        if (cfg != linkConfig) {
+            links.clear();
+            noiseStreams.clear();
+            linkConfig = cfg;
+        }
 
-        for (Radio rx : receivers) {
-            RadioMath.recomputeAntennaAndRange(rx);
-            if (rx.getAntennaCount() <= 0) {
-                /* this isn't needed cause the operator of the listening radio doesn't matter
-                UUID opId = rx.getOperator();
-                Player op = (opId != null ? Bukkit.getPlayer(opId) : null);
-                if (op != null) op.sendMessage(Component.text("§cRadio cannot find any antennas above it."));
-                */
+        // the frame is decoded at most once; each noise bucket is encoded at most once
+        short[] pcm = null;
+        boolean decodeFailed = false;
+        byte[][] noisyByBucket = buf.noisy(maxNoiseBucket(cfg) + 1);
+
+        // per-receiver stage times are summed over the packet and recorded once
+        long resolveNs = System.nanoTime() - t1, checkNs = 0, decodeNs = 0, mixNs = 0, encodeNs = 0, scheduleNs = 0, sendNs = 0;
+        int sent = 0;
+
+        // receivers without antennas are already left out of the topology
+        for (RadioTopology.Node rx : receivers) {
+            long a = System.nanoTime();
+            // nobody near the speaker: skip before any codec or channel work
+            boolean audible = proximity.isAudible(rx, maxAudible);
+            long b = System.nanoTime();
+            checkNs += b - a;
+            if (!audible) {
+                stats.culled();
                 continue;
             }
 
-            Location rxLoc = rx.getLocation();
-            if (rxLoc == null) continue;
-
-            LocationalSpeaker speaker = speakers.computeIfAbsent(rx.getId(),
-                    id -> new LocationalSpeaker(api, rxLoc, maxAudible));
-            speaker.ensureAt(rxLoc, maxAudible);
-
-            // we should make it so that if it's not in the same world it doesn't work
-            double dist = (rxLoc.getWorld() == null || !rxLoc.getWorld().equals(txLoc.getWorld()))
-                    ? 10000d
-                    : txLoc.distance(rxLoc);
+            LocationalSpeaker speaker = sm.speakerFor(rx, maxAudible);
+            if (speaker == null) continue; // world not loaded
 
-            long delayTicks = delayTicksForDistance(dist);
-            double dropChance = dropChanceForDistance(dist);
+            LinkTable.Link link = links.get(tx.id(), rx.id());
+            if (link == null || !link.current(tx, rx)) {
+                link = computeLink(cfg, tx, rx);
+                links.put(tx.id(), rx.id(), link);
+            }
+            resolveNs += System.nanoTime() - b;
 
-            if (dropChance > 0 && ThreadLocalRandom.current().nextDouble() < dropChance) {
-                logDebug("DROP tiny for RX " + rx.getId() + " dist=" + (int) dist);
+            if (link.dropChance() > 0 && ThreadLocalRandom.current().nextDouble() < link.dropChance()) {
+                stats.drop();
+                logDebug("DROP tiny for RX " + rx.id() + " dist=" + (int) link.distance());
                 continue;
             }
 
             byte[] maybe = opusData;
 
-            if (interferenceEnabled && dist > NOISE_CLEAR_RANGE) {
-                double f = Math.min(1.0, (dist - NOISE_CLEAR_RANGE) / Math.max(1.0, (farDistance - NOISE_CLEAR_RANGE)));
-                if (f < 0) f = 0;
-
-                double targetDb = -60.0 + (60.0 + maxNoiseDb) * f;
-                double noiseAmp = Interference.dbToLin(targetDb);
-
-                try { maybe = mixStaticIntoOpus(opusData, noiseAmp, sampleRate); }
-                catch (Throwable ignore) {}
+            int bucket = link.noiseBucket();
+            if (bucket > 0 && !decodeFailed) {
+                byte[] noisy = noisyByBucket[bucket];
+                if (noisy == null) {
+                    try {
+                        long c = System.nanoTime();
+                        if (pcm == null) {
+                            pcm = cp.decoder(talker).decode(opusData);
+                            long d = System.nanoTime();
+                            decodeNs += d - c;
+                            c = d;
+                        }
+                        NoiseStream ns = noiseStream(talker, bucket, cfg);
+                        // pcm is shared between buckets, so mix into the stream's own buffer
+                        short[] mixed = ns.noise.mixInto(pcm, link.noiseAmp());
+                        long m = System.nanoTime();
+                        mixNs += m - c;
+                        noisy = cp.encoder(ns).encode(mixed);
+                        encodeNs += System.nanoTime() - m;
+                    } catch (Throwable t) {
+                        // fall back to the clean frame for the rest of this packet
+                        stats.codecError();
+                        logDebug("Codec error for " + talker + ": " + t);
+                        decodeFailed = true;
+                        noisy = opusData;
+                    }
+                    noisyByBucket[bucket] = noisy;
+                }
+                maybe = noisy;
             }
 
-            if (delayTicks <= 0) speaker.playFrame(maybe);
-            else {
-                final byte[] sendData = maybe;
-                Bukkit.getScheduler().runTaskLater(plugin, () -> speaker.playFrame(sendData), delayTicks);
+            long s0 = System.nanoTime();
+            if (link.baseDelaySec() <= 0) {
+                speaker.playFrame(maybe);
+                sendNs += System.nanoTime() - s0;
+            } else {
+                if (!delayLine.schedule(playoutFor(rx.id(), tx.id(), speaker), maybe, link.baseDelaySec(), JITTER_PCT)) stats.lateDrop();
+                scheduleNs += System.nanoTime() - s0;
             }
+            sent++;
         }
+        receivers.clear(); // don't pin this topology's nodes until the next packet
+
+        stats.fanOut(sent);
+        stats.record(VoiceStats.Stage.RX_RESOLVE, resolveNs);
+        stats.record(VoiceStats.Stage.RX_CHECK, checkNs);
+        if (decodeNs > 0) stats.record(VoiceStats.Stage.DECODE, decodeNs);
+        if (mixNs > 0) stats.record(VoiceStats.Stage.MIX, mixNs);
+        if (encodeNs > 0) stats.record(VoiceStats.Stage.ENCODE, encodeNs);
+        if (scheduleNs > 0) stats.record(VoiceStats.Stage.SCHEDULE, scheduleNs);
+        if (sendNs > 0) stats.record(VoiceStats.Stage.SEND, sendNs);
     }
 
-    private byte[] mixStaticIntoOpus(byte[] opus, double noiseAmp, int sampleRate) throws Exception {
-        Method createDec = api.getClass().getMethod("createDecoder");
-        Method createEnc = api.getClass().getMethod("createEncoder");
-        Object decoder = createDec.invoke(api);
-        Object encoder = createEnc.invoke(api);
-
-        Class<?> decCls = decoder.getClass();
-        Class<?> encCls = encoder.getClass();
+    private PlayoutBuffer playoutFor(UUID rx, UUID tx, LocationalSpeaker speaker) {
+        Map<UUID, PlayoutBuffer> row = playouts.get(rx);
+        if (row == null) row = playouts.computeIfAbsent(rx, k -> new ConcurrentHashMap<>());
+        PlayoutBuffer b = row.get(tx);
+        if (b == null) b = row.computeIfAbsent(tx, k -> new PlayoutBuffer(speaker));
+        return b;
+    }
 
-        Method decode = Arrays.stream(decCls.getMethods())
-                .filter(m -> m.getName().equals("decode") && m.getParameterCount() == 1 && m.getParameterTypes()[0] == byte[].class)
-                .findFirst().orElseThrow(() -> new NoSuchMethodException("Decoder#decode(byte[])"));
+    /**
+     * Static generator state shared by every receiver of one talker in one noise bucket.
+     * Also serves as the pooled encoder's stream key, so the lookup allocates nothing.
+     */
+    private static final class NoiseStream {
+        final Interference noise;
+        long lastUsed;
+        NoiseStream(int sampleRate, PcmMixer mixer) { this.noise = new Interference(sampleRate, mixer); }
+    }
 
-        Method encode = Arrays.stream(encCls.getMethods())
-                .filter(m -> m.getName().equals("encode") && m.getParameterCount() == 1 && m.getParameterTypes()[0] == short[].class)
-                .findFirst().orElseThrow(() -> new NoSuchMethodException("Encoder#encode(short[])"));
+    private NoiseStream noiseStream(UUID talker, int bucket, RadiosConfig cfg) {
+        NoiseStream[] byBucket = noiseStreams.get(talker);
+        if (byBucket == null || byBucket.length <= bucket) {
+            byBucket = new NoiseStream[maxNoiseBucket(cfg) + 1];
+            noiseStreams.put(talker, byBucket);
+        }
+        NoiseStream ns = byBucket[bucket];
+        if (ns == null) byBucket[bucket] = ns = new NoiseStream(cfg.sampleRate(), mixer);
+        ns.lastUsed = System.currentTimeMillis();
+        return ns;
+    }
 
-        short[] pcm = (short[]) decode.invoke(decoder, opus);
+    // drops talkers whose static streams all went quiet
+    private void evictIdleNoise(long idleMillis) {
+        long cutoff = System.currentTimeMillis() - idleMillis;
+        noiseStreams.values().removeIf(byBucket -> {
+            for (NoiseStream ns : byBucket) if (ns != null && ns.lastUsed >= cutoff) return false;
+            return true;
+        });
+    }
 
-        new Interference(sampleRate).mixStatic(pcm, noiseAmp);
+    private static LinkTable.Link computeLink(RadiosConfig cfg, RadioTopology.Node tx, RadioTopology.Node rx) {
+        // listenersInRange never returns other worlds; kept as a guard
+        double dist = rx.sameWorld(tx) ? tx.distanceTo(rx) : 10000d;
 
-        return (byte[]) encode.invoke(encoder, pcm);
+        int bucket = cfg.interferenceEnabled() ? noiseBucketForDistance(cfg, dist) : 0;
+        double noiseAmp = bucket > 0 ? Interference.dbToLin(bucketDb(bucket)) : 0.0;
+        return new LinkTable.Link(dist, delaySecForDistance(dist), dropChanceForDistance(dist), bucket, noiseAmp,
+                tx.version(), rx.version());
     }
 
     // distance profile
@@ -167,18 +287,34 @@ public class VoiceBridge {
     private static final double D4 = 4800.0,            P4 = 0.15;
     private static final double D5 = 6000.0,            P5 = 0.25;
 
-    private long delayTicksForDistance(double d) {
+    // static below this level is inaudible, so those receivers get the untouched frame
+    private static final double AUDIBLE_NOISE_DB = -60.0;
+    private static final double NOISE_BUCKET_DB = 3.0;
+
+    /** Quantized noise level for a distance; 0 means no audible static. */
+    private static int noiseBucketForDistance(RadiosConfig cfg, double d) {
+        if (d <= NOISE_CLEAR_RANGE) return 0;
+        double f = Math.min(1.0, (d - NOISE_CLEAR_RANGE) / Math.max(1.0, (cfg.farDistance() - NOISE_CLEAR_RANGE)));
+        if (f < 0) f = 0;
+
+        double targetDb = -60.0 + (60.0 + cfg.maxNoiseDb()) * f;
+        return Math.max(0, (int) Math.round((targetDb - AUDIBLE_NOISE_DB) / NOISE_BUCKET_DB));
+    }
+
+    private static int maxNoiseBucket(RadiosConfig cfg) {
+        return Math.max(0, (int) Math.round((cfg.maxNoiseDb() - AUDIBLE_NOISE_DB) / NOISE_BUCKET_DB));
+    }
+
+    private static double bucketDb(int bucket) {
+        return AUDIBLE_NOISE_DB + bucket * NOISE_BUCKET_DB;
+    }
+
+    private static double delaySecForDistance(double d) {
         if (d <= DELAY_CLEAR_RANGE) return 0;
-        double extra = d - DELAY_CLEAR_RANGE;
-        double sec = extra * DELAY_PER_BLOCK;
-        if (JITTER_PCT > 0) {
-            double j = (ThreadLocalRandom.current().nextDouble() * 2 - 1) * JITTER_PCT;
-            sec = Math.max(0.0, sec * (1.0 + j));
-        }
-        return Math.max(0, Math.round(sec * 20.0));
+        return (d - DELAY_CLEAR_RANGE) * DELAY_PER_BLOCK;
     }
 
-    private double dropChanceForDistance(double d) {
+    private static double dropChanceForDistance(double d) {
         double p;
         if (d <= D0) p = P0;
         else if (d <= D1) p = lerp(d, D0, P0, D1, P1);
@@ -198,7 +334,7 @@ public class VoiceBridge {
 
     public void bindOperator(Radio r, org.bukkit.entity.Player operator) {
         if (api == null) return;
-        if (!plugin.getConfig().getBoolean("voice.isolateOperatorInTxGroup", false)) return;
+        if (!config.get().isolateOperatorInTxGroup()) return;
 
         VoicechatConnection c = api.getConnectionOf(operator.getUniqueId());
         if (c == null) return;
@@ -218,19 +354,78 @@ public class VoiceBridge {
         if (r.getListenFrequency() < 1) removeSpeaker(r.getId());
     }
 
+    /**
+     * Closes radioId's speaker. Call after saving or deleting the radio: packets routed on the
+     * topology from before that change can't bring the speaker back.
+     */
     public void removeSpeaker(UUID radioId) {
-        LocationalSpeaker sp = speakers.remove(radioId);
-        if (sp != null) sp.close();
+        invalidateLinks(radioId);
+        dropPlayouts(radioId);
+        proximity.forget(radioId);
+        SpeakerManager sm = speakers;
+        if (sm != null) sm.remove(radioId, routeVersion.getAsLong());
+    }
+
+    /** Main thread only, from WorldLoadEvent and on enable. */
+    public void worldLoaded(World w) {
+        worlds.put(w.getName(), w);
+    }
+
+    /** Main thread only, from WorldUnloadEvent. */
+    public void worldUnloaded(World w) {
+        worlds.remove(w.getName(), w);
+    }
+
+    // queued frames hold the receiver's speaker, so they go with it
+    private void dropPlayouts(UUID rx) {
+        Map<UUID, PlayoutBuffer> row = playouts.remove(rx);
+        if (row != null) for (PlayoutBuffer b : row.values()) b.clear();
+    }
+
+    public VoiceStats stats() {
+        return stats;
+    }
+
+    /** Lines for /radio stats: pipeline counters and histograms plus pool sizes. */
+    public List<String> statsReport() {
+        List<String> out = new ArrayList<>(stats.report());
+        SpeakerManager sm = speakers;
+        if (sm != null) out.add("Speakers: live " + sm.live() + ", created " + sm.created() + ", evicted " + sm.evicted());
+        OpusCodecPool cp = codecs;
+        out.add("Codecs: " + (cp == null ? 0 : cp.size()) + ", noise streams: " + noiseStreams.size()
+                + ", links: " + links.size() + ", delayed buffers: " + delayLine.activeBuffers());
+        return out;
+    }
+
+    /** Speaker channel counts, or null before voice chat has started. */
+    public SpeakerManager speakers() {
+        return speakers;
+    }
+
+    /** Drops cached propagation for radioId. Changed radios are caught by version; this just frees the entries. */
+    public void invalidateLinks(UUID radioId) {
+        links.invalidate(radioId);
     }
 
     public void shutdownAllSpeakers() {
-        for (LocationalSpeaker sp : speakers.values()) sp.close();
-        speakers.clear();
+        SpeakerManager sm = speakers;
+        if (sm != null) sm.closeAll();
+        for (Map<UUID, PlayoutBuffer> row : playouts.values()) for (PlayoutBuffer b : row.values()) b.clear();
+        playouts.clear();
+    }
+
+    /** Releases speakers and native codec state; called on plugin disable. */
+    public void shutdown() {
+        delayLine.shutdown();
+        shutdownAllSpeakers();
+        OpusCodecPool cp = codecs;
+        codecs = null; // first, so new packets bail out before touching the closed pool
+        if (cp != null) cp.close();
     }
 
     private void logDebug(String msg) {
-        if (plugin.getConfig().getBoolean("debug.voice", false)) {
-            plugin.getLogger().info("[VoiceBridge] " + msg);
+        if (config.get().debugVoice()) {
+            logger.info("[VoiceBridge] " + msg);
         }
     }
 }
@@ -0,0 +1,125 @@
+package com.civlabs.radios.voice;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and per-stage latency histograms for the mic packet path.
+ * Recording is lock-free and never allocates, so it stays on in production;
+ * /radio stats prints a report and /radio stats reset starts a new window.
+ */
+public class VoiceStats {
+
+    /** Stages of onMicPacket. Per-receiver stages are summed over one packet. */
+    public enum Stage {
+        TX_LOOKUP("tx lookup"),
+        RX_RESOLVE("rx resolve"),
+        RX_CHECK("rx check"),
+        DECODE("decode"),
+        MIX("noise mix"),
+        ENCODE("encode"),
+        SCHEDULE("schedule"),
+        SEND("send");
+
+        final String label;
+        Stage(String label) { this.label = label; }
+    }
+
+    /**
+     * Fixed log2 buckets in microseconds: bucket 0 is below 1 µs, bucket b covers
+     * [2^(b-1), 2^b) µs, and the last one takes everything from ~8 s up.
+     */
+    static final class Histogram {
+        private static final int BUCKETS = 24;
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sumNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        void record(long nanos) {
+            long us = nanos / 1000;
+            int b = us <= 0 ? 0 : Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(us));
+            counts.incrementAndGet(b);
+            count.increment();
+            sumNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+        }
+
+        /** Upper bound in µs of the bucket holding the p-th quantile. */
+        long percentileMicros(double p) {
+            long n = count.sum();
+            if (n == 0) return 0;
+            long target = (long) Math.ceil(p * n), seen = 0;
+            for (int b = 0; b < BUCKETS; b++) {
+                seen += counts.get(b);
+                if (seen >= target) return 1L << b;
+            }
+            return 1L << (BUCKETS - 1);
+        }
+
+        void reset() {
+            for (int b = 0; b < BUCKETS; b++) counts.set(b, 0);
+            count.reset();
+            sumNanos.reset();
+            maxNanos.reset();
+        }
+    }
+
+    private final Histogram[] stages = new Histogram[Stage.values().length];
+    private final LongAdder packetsIn = new LongAdder();
+    private final LongAdder fanOut = new LongAdder();
+    private final LongAdder drops = new LongAdder();
+    private final LongAdder lateDrops = new LongAdder();
+    private final LongAdder culled = new LongAdder();
+    private final LongAdder codecErrors = new LongAdder();
+    private volatile long since = System.currentTimeMillis();
+
+    public VoiceStats() {
+        for (int i = 0; i < stages.length; i++) stages[i] = new Histogram();
+    }
+
+    public void record(Stage stage, long nanos) { stages[stage.ordinal()].record(nanos); }
+
+    public void packetIn() { packetsIn.increment(); }
+    public void fanOut(int receivers) { fanOut.add(receivers); }
+    public void drop() { drops.increment(); }
+    public void lateDrop() { lateDrops.increment(); }
+    public void culled() { culled.increment(); }
+    public void codecError() { codecErrors.increment(); }
+
+    public long codecErrors() { return codecErrors.sum(); }
+
+    public void reset() {
+        for (Histogram h : stages) h.reset();
+        packetsIn.reset();
+        fanOut.reset();
+        drops.reset();
+        lateDrops.reset();
+        culled.reset();
+        codecErrors.reset();
+        since = System.currentTimeMillis();
+    }
+
+    /** Human-readable summary, one line per entry. */
+    public List<String> report() {
+        List<String> out = new ArrayList<>();
+        long packets = packetsIn.sum();
+        long secs = Math.max(1, (System.currentTimeMillis() - since) / 1000);
+        out.add("Window: " + secs + "s, packets in: " + packets + " (" + (packets / secs) + "/s)");
+        out.add(String.format("Fan-out: %.1f frames/packet, drops: %d, late drops: %d, culled rx: %d, codec errors: %d",
+                packets == 0 ? 0.0 : (double) fanOut.sum() / packets,
+                drops.sum(), lateDrops.sum(), culled.sum(), codecErrors.sum()));
+        for (Stage s : Stage.values()) {
+            Histogram h = stages[s.ordinal()];
+            long n = h.count.sum();
+            if (n == 0) continue;
+            out.add(String.format("%-11s n=%d avg=%dµs p50<=%dµs p99<=%dµs max=%dµs",
+                    s.label, n, h.sumNanos.sum() / n / 1000,
+                    h.percentileMicros(0.50), h.percentileMicros(0.99), h.maxNanos.get() / 1000));
+        }
+        return out;
+    }
+}
@@ -0,0 +1,41 @@
+package com.civlabs.radios.voice;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD mixer built on jdk.incubator.vector. Only instantiated through
+ * PcmMixer.select when the module is present at runtime.
+ */
+public final class VectorPcmMixer implements PcmMixer {
+
+    private static final VectorSpecies<Float> F = FloatVector.SPECIES_PREFERRED;
+    // same lane count as F, so one short load widens into exactly one float vector
+    private static final VectorSpecies<Short> S =
+            VectorSpecies.of(short.class, VectorShape.forBitSize(F.vectorBitSize() / 2));
+
+    @Override
+    public void mix(short[] src, int srcOff, short[] dst, float[] noise, int noiseOff, int len, float gain) {
+        FloatVector g = FloatVector.broadcast(F, gain);
+        int upper = S.loopBound(len);
+        int i = 0;
+        for (; i < upper; i += S.length()) {
+            FloatVector pcm = (FloatVector) ShortVector.fromArray(S, src, srcOff + i)
+                    .convertShape(VectorOperators.S2F, F, 0);
+            FloatVector mixed = FloatVector.fromArray(F, noise, noiseOff + i).fma(g, pcm)
+                    .max(-32768f).min(32767f);
+            ((ShortVector) mixed.convertShape(VectorOperators.F2S, S, 0)).intoArray(dst, srcOff + i);
+        }
+        for (; i < len; i++) {
+            float v = src[srcOff + i] + gain * noise[noiseOff + i];
+            v = v > 32767f ? 32767f : (v < -32768f ? -32768f : v);
+            dst[srcOff + i] = (short) v;
+        }
+    }
+
+    @Override
+    public String name() { return "vector/" + F.length() + "xf32"; }
+}